@@ -0,0 +1,75 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import com.example.personcolormanager.service.PersonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// addPerson with 8 concurrent callers on the CSV backend in each durability mode and on the database backend
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AddPersonBenchmark {
+
+    @Param({"csv-fsync-each", "csv-group-fsync", "csv-async", "db"})
+    String backend;
+
+    private PersonService personService;
+    private CsvPersonServiceImpl csvPersonService;
+    private ConfigurableApplicationContext context;
+
+    @State(Scope.Thread)
+    public static class Generator {
+        final SplittableRandom random = new SplittableRandom();
+        int index;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (backend) {
+            case "csv-fsync-each" -> csvPersonService = BenchmarkFixtures.csvPersonService(CsvDataGenerator.copyOf(1_000), DurabilityMode.FSYNC_EACH);
+            case "csv-group-fsync" -> csvPersonService = BenchmarkFixtures.csvPersonService(CsvDataGenerator.copyOf(1_000), DurabilityMode.GROUP_FSYNC);
+            case "csv-async" -> csvPersonService = BenchmarkFixtures.csvPersonService(CsvDataGenerator.copyOf(1_000), DurabilityMode.ASYNC);
+            case "db" -> context = BenchmarkFixtures.databaseContext(1_000, false);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+        personService = csvPersonService != null ? csvPersonService : context.getBean(PersonService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (csvPersonService != null) {
+            BenchmarkFixtures.close(csvPersonService);
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Person addPerson(Generator generator) {
+        return personService.addPerson(BenchmarkFixtures.newPerson(generator.random, generator.index++));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Rows per second inserted into the database by one addPerson call per person versus one addPersons
+// call (JDBC batch inserts in a single transaction) per batch of persons
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+    private static final int BATCH_SIZE = 1_000;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private ConfigurableApplicationContext context;
+    private PersonService personService;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.databaseContext(0, false);
+        personService = context.getBean(PersonService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addPerson() {
+        for (Person person : newPersons()) {
+            personService.addPerson(person);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Person> addPersons() {
+        return personService.addPersons(newPersons());
+    }
+
+    private List<Person> newPersons() {
+        List<Person> persons = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            persons.add(BenchmarkFixtures.newPerson(random, index++));
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.PersonColorManagerApplication;
+import com.example.personcolormanager.ingest.ParallelCsvIngestionEngine;
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.ColorStatistics;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import com.example.personcolormanager.service.PersonService;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+// Shared setup for the benchmarks: color mappings, CSV-backed services and a database-backed application context
+public final class BenchmarkFixtures {
+    public static final String[] COLOR_NAMES = {"blau", "Grün", "VIOLETT", "rot", "Gelb", "türkis", "WEIß"};
+
+    private BenchmarkFixtures() {
+    }
+
+    public static ColorMappingUtil colorMappingUtil() {
+        ColorMappingUtil colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        return colorMappingUtil;
+    }
+
+    // Create a CSV-backed service over the given file
+    public static CsvPersonServiceImpl csvPersonService(Path csvFile, DurabilityMode durabilityMode) {
+        return csvPersonService(csvFile, durabilityMode, false);
+    }
+
+    public static CsvPersonServiceImpl csvPersonService(Path csvFile, DurabilityMode durabilityMode, boolean snapshotEnabled) {
+        return csvPersonService(csvFile, durabilityMode, snapshotEnabled, 1);
+    }
+
+    public static CsvPersonServiceImpl csvPersonService(Path csvFile, DurabilityMode durabilityMode, boolean snapshotEnabled,
+                                                        int partitions) {
+        return new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil(), new ParallelCsvIngestionEngine(0),
+                new ColorStatistics(), durabilityMode, snapshotEnabled, partitions);
+    }
+
+    // Start the application without web server on a fresh in-memory H2 database holding rows persons
+    public static ConfigurableApplicationContext databaseContext(int rows, boolean cacheEnabled) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PersonColorManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "database.enabled=true",
+                        "person.cache.enabled=" + cacheEnabled,
+                        "colors.watch.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "logging.level.root=WARN")
+                .run();
+        PersonService personService = context.getBean(PersonService.class);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int inserted = 0; inserted < rows; inserted += 10_000) {
+            List<Person> persons = new ArrayList<>(10_000);
+            for (int i = inserted; i < Math.min(rows, inserted + 10_000); i++) {
+                persons.add(newPerson(random, i));
+            }
+            personService.addPersons(persons);
+        }
+        return context;
+    }
+
+    public static Person newPerson(SplittableRandom random, int index) {
+        return new Person(0, "Name" + index, "Last" + index, String.format("%05d", random.nextInt(1_000, 100_000)),
+                "Stadt", null, 1 + random.nextInt(COLOR_NAMES.length));
+    }
+
+    public static void close(CsvPersonServiceImpl personService) {
+        try {
+            personService.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.personcolormanager.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs JMH and writes the results as JSON (jmh-result.json unless -rff is given), so runs can be
+// compared with ResultComparator. Accepts every JMH command line option, e.g.
+//   java -jar target/benchmarks.jar PersonLookupBenchmark -p rows=10000 -rff before.json
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        if (!arguments.contains("-rf")) {
+            arguments.add("-rf");
+            arguments.add("json");
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.add("-rff");
+            arguments.add("jmh-result.json");
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// ColorMappingUtil lookups in both directions; run with -prof gc to see allocation per call
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorLookupBenchmark {
+
+    private ColorMappingUtil colorMappingUtil;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        colorMappingUtil = BenchmarkFixtures.colorMappingUtil();
+    }
+
+    @Benchmark
+    public Integer getColorIdByColorName() {
+        index = (index + 1) % BenchmarkFixtures.COLOR_NAMES.length;
+        return colorMappingUtil.getColorIdByColorName(BenchmarkFixtures.COLOR_NAMES[index]);
+    }
+
+    @Benchmark
+    public Integer getColorIdByUnknownColorName() {
+        return colorMappingUtil.getColorIdByColorName("schwarz");
+    }
+
+    @Benchmark
+    public String getColorNameByColorId() {
+        index = (index + 1) % BenchmarkFixtures.COLOR_NAMES.length;
+        return colorMappingUtil.getColorNameByColorId(index + 1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.personcolormanager.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+// Generates synthetic person CSVs in the sample-input.csv format:
+//   lastName, name, zipCode city, colorId
+// Usage: java -cp benchmarks.jar com.example.personcolormanager.benchmarks.CsvDataGenerator <rows> <file>
+public final class CsvDataGenerator {
+    private static final String[] LAST_NAMES = {
+            "Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann",
+            "Petersen", "Johnson", "Andersson", "Klaussen", "Gerber", "Bart", "Fujitsu", "Millenium", "Jäger", "Köhler"};
+    private static final String[] NAMES = {
+            "Hans", "Peter", "Johnny", "Milly", "Jonas", "Anders", "Bertram", "Gerda", "Klaus", "Anna",
+            "Lena", "Lukas", "Sophie", "Max", "Marie", "Paul", "Emma", "Felix", "Jürgen", "Zoë"};
+    private static final String[] CITIES = {
+            "Lauterecken", "Stralsund", "Hansstadt", "Berlin", "Hamburg", "München", "Köln", "Frankfurt am Main",
+            "Düsseldorf", "Schweden - ☀", "Wasweißich", "Woanders", "Hierach", "made up", "Görlitz", "Bad Tölz"};
+    private static final int COLOR_COUNT = 7;
+
+    private CsvDataGenerator() {
+    }
+
+    // Write rows persons to the file; the same seed always produces the same file
+    public static void generate(Path file, int rows, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                writer.write(", ");
+                writer.write(NAMES[random.nextInt(NAMES.length)]);
+                writer.write(", ");
+                writer.write(String.format("%05d", random.nextInt(1_000, 100_000)));
+                writer.write(' ');
+                writer.write(CITIES[random.nextInt(CITIES.length)]);
+                writer.write(", ");
+                writer.write(Integer.toString(1 + random.nextInt(COLOR_COUNT)));
+                writer.newLine();
+            }
+        }
+    }
+
+    // Get a generated file with the given number of rows, creating it on first use.
+    // Files are kept in benchmark.data.dir (default target/benchmark-data) and reused across runs.
+    public static Path getOrCreate(int rows) throws IOException {
+        Path directory = Paths.get(System.getProperty("benchmark.data.dir", "target/benchmark-data"));
+        Files.createDirectories(directory);
+        Path file = directory.resolve("persons-" + rows + ".csv");
+        if (!Files.exists(file)) {
+            Path temporaryFile = Files.createTempFile(directory, "persons-" + rows, ".tmp");
+            generate(temporaryFile, rows, 42);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return file;
+    }
+
+    // Copy a generated file, for benchmarks that append to it
+    public static Path copyOf(int rows) throws IOException {
+        Path source = getOrCreate(rows);
+        Path copy = Files.createTempFile(source.getParent(), "persons-" + rows + "-copy", ".csv");
+        Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+        copy.toFile().deleteOnExit();
+        return copy;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CsvDataGenerator <rows> <file>");
+            System.exit(1);
+        }
+        generate(Paths.get(args[1]), Integer.parseInt(args[0]), 42);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.ingest.CsvIngestionEngine;
+import com.example.personcolormanager.ingest.IngestionResult;
+import com.example.personcolormanager.ingest.ParallelCsvIngestionEngine;
+import com.example.personcolormanager.ingest.SequentialCsvIngestionEngine;
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Time to load a CSV of the given size, through the ingestion engine alone and through the full
+// CsvPersonServiceImpl constructor (parse, color resolution and indexing).
+// The 10M row case needs a large heap, e.g. -jvmArgsAppend -Xmx16g
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvLoadBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    @Param({"parallel", "sequential"})
+    String engine;
+
+    private Path csvFile;
+    private CsvIngestionEngine ingestionEngine;
+
+    @Setup
+    public void setUp() throws IOException {
+        csvFile = CsvDataGenerator.getOrCreate(rows);
+        ingestionEngine = engine.equals("parallel") ? new ParallelCsvIngestionEngine(0) : new SequentialCsvIngestionEngine();
+    }
+
+    @Benchmark
+    public IngestionResult ingest() throws IOException {
+        return ingestionEngine.ingest(new FileSystemResource(csvFile));
+    }
+
+    @Benchmark
+    public CsvPersonServiceImpl loadService() {
+        CsvPersonServiceImpl personService = BenchmarkFixtures.csvPersonService(csvFile, DurabilityMode.ASYNC);
+        BenchmarkFixtures.close(personService);
+        return personService;
+    }
+}
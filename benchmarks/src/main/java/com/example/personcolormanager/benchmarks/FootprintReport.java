@@ -0,0 +1,51 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.ingest.ParallelCsvIngestionEngine;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.store.PersonStore;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import com.example.personcolormanager.util.ColorPalette;
+import org.springframework.core.io.FileSystemResource;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+// Heap bytes per person for the object layout the CSV backend used to keep (one Person with its
+// own strings per row) against the columnar PersonStore.
+// Usage: java -Xmx4g -cp benchmarks.jar com.example.personcolormanager.benchmarks.FootprintReport [rows]
+public final class FootprintReport {
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        FileSystemResource csvFile = new FileSystemResource(CsvDataGenerator.getOrCreate(rows));
+        ColorMappingUtil colorMappingUtil = BenchmarkFixtures.colorMappingUtil();
+
+        long baseline = usedHeap();
+        List<Person> persons = new ParallelCsvIngestionEngine(0).ingest(csvFile).getPersons();
+        ColorPalette palette = colorMappingUtil.getPalette();
+        for (Person person : persons) {
+            person.setColor(palette.getName(person.getColorId()));
+        }
+        long objects = usedHeap() - baseline;
+
+        PersonStore personStore = new PersonStore(colorMappingUtil::getColorNameByColorId);
+        personStore.addAll(persons);
+        persons = null;
+        long columnar = usedHeap() - baseline;
+
+        System.out.printf("%,d persons%n", personStore.size());
+        System.out.printf("Person objects: %,d bytes, %.1f bytes per person%n", objects, (double) objects / rows);
+        System.out.printf("Columnar store: %,d bytes, %.1f bytes per person%n", columnar, (double) columnar / rows);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
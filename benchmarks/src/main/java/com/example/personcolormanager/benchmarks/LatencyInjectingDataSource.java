@@ -0,0 +1,67 @@
+package com.example.personcolormanager.benchmarks;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Makes an embedded database behave like a remote one: every statement execution sleeps for the
+// configured latency first, while holding its connection, as a round trip to a slow server would
+public class LatencyInjectingDataSource extends DelegatingDataSource {
+    private volatile long latencyMillis;
+
+    public LatencyInjectingDataSource(DataSource target) {
+        super(target);
+    }
+
+    // Applies to statements executed from now on; 0 switches the latency off
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement && method.getReturnType().isInterface()) {
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{method.getReturnType()},
+                                statementHandler(result));
+                    }
+                    return result;
+                });
+    }
+
+    private InvocationHandler statementHandler(Object statement) {
+        return (proxy, method, args) -> {
+            long latency = latencyMillis;
+            if (latency > 0 && method.getName().startsWith("execute")) {
+                Thread.sleep(latency);
+            }
+            return invoke(statement, method, args);
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
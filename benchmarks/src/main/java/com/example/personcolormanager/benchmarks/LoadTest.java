@@ -0,0 +1,200 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.PersonColorManagerApplication;
+import com.example.personcolormanager.config.VirtualThreadsConfig;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Closed-loop load test of GET /api/persons/{id} in database mode, once per mode: PLATFORM handles
+// requests on Tomcat's thread pool, VIRTUAL on virtual threads (spring.threads.virtual.enabled).
+// The embedded H2 database gets latencyMs added to every statement and the person cache is off, so
+// every request blocks on a slow query. With fewer Tomcat threads than clients and more connections
+// than Tomcat threads, the platform pool is the bottleneck that virtual threads remove.
+// Usage: java -cp benchmarks.jar com.example.personcolormanager.benchmarks.LoadTest [key=value ...]
+//   modes=PLATFORM,VIRTUAL clients=100 latencyMs=100 seconds=10 warmupSeconds=3
+//   tomcatThreads=10 poolSize=100 rows=10000
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "modes", "PLATFORM,VIRTUAL", "clients", "100", "latencyMs", "100", "seconds", "10",
+                "warmupSeconds", "3", "tomcatThreads", "10", "poolSize", "100", "rows", "10000"));
+        for (String arg : args) {
+            String[] keyAndValue = arg.split("=", 2);
+            if (keyAndValue.length != 2 || !options.containsKey(keyAndValue[0])) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+            options.put(keyAndValue[0], keyAndValue[1]);
+        }
+        int clients = Integer.parseInt(options.get("clients"));
+        int latencyMillis = Integer.parseInt(options.get("latencyMs"));
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %8s %6s %9s %8s %7s %12s %8s %8s", "mode", "threads", "pool",
+                "latency", "clients", "errors", "requests/s", "p50 ms", "p99 ms"));
+        for (String mode : options.get("modes").split(",")) {
+            mode = mode.trim().toUpperCase();
+            boolean virtual = switch (mode) {
+                case "PLATFORM" -> false;
+                case "VIRTUAL" -> true;
+                default -> throw new IllegalArgumentException("Unknown mode " + mode);
+            };
+            if (virtual && !VirtualThreadsConfig.virtualThreadsSupported()) {
+                report.add(String.format("%-9s skipped, virtual threads need Java 21", mode));
+                continue;
+            }
+            Result result = run(virtual, options, clients, latencyMillis);
+            report.add(String.format("%-9s %8s %6s %7dms %8d %7d %12.0f %8.1f %8.1f", mode,
+                    options.get("tomcatThreads"), options.get("poolSize"), latencyMillis, clients, result.errors,
+                    result.throughput(), result.percentile(0.50), result.percentile(0.99)));
+        }
+        report.forEach(System.out::println);
+    }
+
+    private static Result run(boolean virtual, Map<String, String> options, int clients, int latencyMillis)
+            throws Exception {
+        AtomicReference<LatencyInjectingDataSource> dataSource = new AtomicReference<>();
+        // Command line arguments, so they take precedence over application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PersonColorManagerApplication.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        if (bean instanceof DataSource target && !(bean instanceof LatencyInjectingDataSource)) {
+                            dataSource.set(new LatencyInjectingDataSource(target));
+                            return dataSource.get();
+                        }
+                        return bean;
+                    }
+                }))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--server.tomcat.threads.max=" + options.get("tomcatThreads"),
+                        "--server.tomcat.accept-count=" + clients,
+                        "--spring.datasource.hikari.maximum-pool-size=" + options.get("poolSize"),
+                        "--database.enabled=true",
+                        "--person.cache.enabled=false",
+                        "--colors.watch.enabled=false",
+                        "--data.loading.async=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID(),
+                        "--logging.level.root=WARN");
+        try {
+            int rows = Integer.parseInt(options.get("rows"));
+            seed(context.getBean(PersonService.class), rows);
+            dataSource.get().setLatencyMillis(latencyMillis);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            drive(client, port, rows, clients, Duration.ofSeconds(Long.parseLong(options.get("warmupSeconds"))));
+            return drive(client, port, rows, clients, Duration.ofSeconds(Long.parseLong(options.get("seconds"))));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void seed(PersonService personService, int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int inserted = 0; inserted < rows; inserted += 10_000) {
+            List<Person> persons = new ArrayList<>(10_000);
+            for (int i = inserted; i < Math.min(rows, inserted + 10_000); i++) {
+                persons.add(BenchmarkFixtures.newPerson(random, i));
+            }
+            personService.addPersons(persons);
+        }
+    }
+
+    // Each client sends its next request as soon as the previous one is answered
+    private static Result drive(HttpClient client, int port, int rows, int clients, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        int[] errors = new int[clients];
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            int clientIndex = c;
+            threads[c] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(clientIndex);
+                long[] own = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/api/persons/" + (1 + random.nextInt(rows)))).build();
+                    long start = System.nanoTime();
+                    try {
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            errors[clientIndex]++;
+                        }
+                    } catch (Exception e) {
+                        errors[clientIndex]++;
+                    }
+                    if (count == own.length) {
+                        own = Arrays.copyOf(own, count * 2);
+                    }
+                    own[count++] = System.nanoTime() - start;
+                }
+                latencies[clientIndex] = own;
+                counts[clientIndex] = count;
+            }, "load-client-" + c);
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(all, Arrays.stream(errors).sum(), duration);
+    }
+
+    private static final class Result {
+        final long[] sortedLatencies;
+        final int errors;
+        final Duration duration;
+
+        Result(long[] sortedLatencies, int errors, Duration duration) {
+            this.sortedLatencies = sortedLatencies;
+            this.errors = errors;
+            this.duration = duration;
+        }
+
+        double throughput() {
+            return sortedLatencies.length / (duration.toNanos() / 1e9);
+        }
+
+        double percentile(double fraction) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(fraction * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
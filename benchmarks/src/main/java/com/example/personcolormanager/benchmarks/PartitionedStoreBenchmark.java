@@ -0,0 +1,81 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Full listings, color listings and id lookups of the CSV backend by number of store partitions.
+// Listings are consumed completely, as serializing them would; with more partitions than one, their
+// persons are materialized on several cores, so the gain is bounded by the cores available.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedStoreBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    int partitions;
+
+    @Param({"1000000"})
+    int rows;
+
+    private CsvPersonServiceImpl personService;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(7);
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        personService = BenchmarkFixtures.csvPersonService(CsvDataGenerator.getOrCreate(rows), DurabilityMode.ASYNC, false, partitions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkFixtures.close(personService);
+    }
+
+    @Benchmark
+    public long getPersons() {
+        return consume(personService.getPersons());
+    }
+
+    @Benchmark
+    public long getPersonByColor(Cursor cursor) {
+        String color = BenchmarkFixtures.COLOR_NAMES[cursor.random.nextInt(BenchmarkFixtures.COLOR_NAMES.length)];
+        return consume(personService.getPersonByColor(color));
+    }
+
+    @Benchmark
+    public Person getPersonById(Cursor cursor) {
+        return personService.getPersonById(1 + cursor.random.nextInt(rows));
+    }
+
+    private static long consume(List<Person> persons) {
+        long ids = 0;
+        for (Person person : persons) {
+            ids += person.getId();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import com.example.personcolormanager.service.PersonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// getPersonById and getPersonByColor on the CSV backend and the database backend with and without cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonLookupBenchmark {
+
+    @Param({"csv", "db", "db-cached"})
+    String backend;
+
+    @Param({"100000"})
+    int rows;
+
+    private PersonService personService;
+    private CsvPersonServiceImpl csvPersonService;
+    private ConfigurableApplicationContext context;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(7);
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (backend) {
+            case "csv" -> csvPersonService = BenchmarkFixtures.csvPersonService(CsvDataGenerator.getOrCreate(rows), DurabilityMode.ASYNC);
+            case "db" -> context = BenchmarkFixtures.databaseContext(rows, false);
+            case "db-cached" -> context = BenchmarkFixtures.databaseContext(rows, true);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+        personService = csvPersonService != null ? csvPersonService : context.getBean(PersonService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (csvPersonService != null) {
+            BenchmarkFixtures.close(csvPersonService);
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Person getPersonById(Cursor cursor) {
+        return personService.getPersonById(1 + cursor.random.nextInt(rows));
+    }
+
+    @Benchmark
+    public List<Person> getPersonByColor(Cursor cursor) {
+        return personService.getPersonByColor(BenchmarkFixtures.COLOR_NAMES[cursor.random.nextInt(BenchmarkFixtures.COLOR_NAMES.length)]);
+    }
+}
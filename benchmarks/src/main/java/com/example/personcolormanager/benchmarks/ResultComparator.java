@@ -0,0 +1,61 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Prints the change per benchmark between two JMH JSON result files.
+// Usage: java -cp benchmarks.jar com.example.personcolormanager.benchmarks.ResultComparator before.json after.json
+public final class ResultComparator {
+
+    private ResultComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ResultComparator <baseline.json> <candidate.json>");
+            System.exit(1);
+        }
+        Map<String, JsonNode> baseline = readScores(new File(args[0]));
+        Map<String, JsonNode> candidate = readScores(new File(args[1]));
+
+        System.out.printf("%-90s %15s %15s %10s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            double afterScore = after.get("score").asDouble();
+            String unit = after.get("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %15s %15.3f %10s %s%n", entry.getKey(), "-", afterScore, "new", unit);
+                continue;
+            }
+            double beforeScore = before.get("score").asDouble();
+            System.out.printf("%-90s %15.3f %15.3f %+9.1f%% %s%n", entry.getKey(), beforeScore, afterScore,
+                    (afterScore - beforeScore) / beforeScore * 100, unit);
+        }
+    }
+
+    // Map "benchmark [params]" to its primary metric
+    private static Map<String, JsonNode> readScores(File file) throws IOException {
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                    .replace("com.example.personcolormanager.benchmarks.", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            scores.put(key.toString(), result.get("primaryMetric"));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import com.example.personcolormanager.service.PersonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// One page of a prefix search, from a broad single-field prefix to a selective combination, either the
+// first page or one from the middle of the persons. The generated CSV data has few distinct names and
+// cities but many zip codes; the database persons are named Name0, Name1, ... and all live in Stadt, so
+// the name prefix differs per backend to match about a tenth of the persons in both. The database finds
+// the matches through the prefix's key index and sorts all of them by id for every page, so a broad
+// prefix costs about as much on every page as on the first.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"csv", "db"})
+    String backend;
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"name", "zip", "city-zip", "no-match"})
+    String query;
+
+    @Param({"50"})
+    int limit;
+
+    @Param({"first", "middle"})
+    String page;
+
+    private PersonService personService;
+    private CsvPersonServiceImpl csvPersonService;
+    private ConfigurableApplicationContext context;
+    private long afterId;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(7);
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (backend) {
+            case "csv" -> csvPersonService = BenchmarkFixtures.csvPersonService(CsvDataGenerator.getOrCreate(rows), DurabilityMode.ASYNC);
+            case "db" -> context = BenchmarkFixtures.databaseContext(rows, false);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+        personService = csvPersonService != null ? csvPersonService : context.getBean(PersonService.class);
+        afterId = switch (page) {
+            case "first" -> 0;
+            case "middle" -> rows / 2;
+            default -> throw new IllegalArgumentException("Unknown page " + page);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (csvPersonService != null) {
+            BenchmarkFixtures.close(csvPersonService);
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<Person> search(Cursor cursor) {
+        return personService.searchPersons(criteria(cursor.random), afterId, limit);
+    }
+
+    private PersonSearchCriteria criteria(SplittableRandom random) {
+        String zipPrefix = String.format("%03d", random.nextInt(10, 1_000));
+        return switch (query) {
+            case "name" -> new PersonSearchCriteria(csvPersonService != null ? "an" : "name1", null, null, null);
+            case "zip" -> new PersonSearchCriteria(null, null, null, zipPrefix);
+            case "city-zip" -> new PersonSearchCriteria(null, null, "b", zipPrefix);
+            case "no-match" -> new PersonSearchCriteria("zz", null, null, null);
+            default -> throw new IllegalArgumentException("Unknown query " + query);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.model.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of List<Person> the way the controllers return it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private List<Person> persons;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SplittableRandom random = new SplittableRandom(42);
+        persons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Person person = BenchmarkFixtures.newPerson(random, i);
+            person.setId(i + 1);
+            person.setColor(BenchmarkFixtures.COLOR_NAMES[person.getColorId() - 1].toLowerCase());
+            persons.add(person);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializePersons() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(persons);
+    }
+}
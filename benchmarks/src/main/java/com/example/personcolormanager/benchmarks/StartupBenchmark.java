@@ -0,0 +1,59 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.ingest.PersonSnapshotFile;
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Cold start of the CSV backend: parsing the CSV file against loading the binary snapshot.
+// The 10M row case needs a large heap, e.g. -jvmArgsAppend -Xmx16g
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int rows;
+
+    @Param({"csv", "snapshot"})
+    String source;
+
+    private Path csvFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        csvFile = CsvDataGenerator.getOrCreate(rows);
+        Path snapshotFile = PersonSnapshotFile.forCsvFile(csvFile);
+        if (source.equals("csv")) {
+            Files.deleteIfExists(snapshotFile);
+        } else {
+            // Loading the CSV once with snapshots enabled leaves an up-to-date snapshot behind
+            BenchmarkFixtures.close(BenchmarkFixtures.csvPersonService(csvFile, DurabilityMode.ASYNC, true));
+        }
+    }
+
+    @Benchmark
+    public CsvPersonServiceImpl startup() {
+        CsvPersonServiceImpl personService = BenchmarkFixtures.csvPersonService(csvFile, DurabilityMode.ASYNC, source.equals("snapshot"));
+        BenchmarkFixtures.close(personService);
+        return personService;
+    }
+}
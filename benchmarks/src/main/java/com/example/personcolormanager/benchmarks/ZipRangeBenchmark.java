@@ -0,0 +1,101 @@
+package com.example.personcolormanager.benchmarks;
+
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import com.example.personcolormanager.service.PersonService;
+import com.example.personcolormanager.util.ZipCodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// First page of a zip code range query, with and without a color, against filtering all persons
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipRangeBenchmark {
+
+    @Param({"csv", "db"})
+    String backend;
+
+    @Param({"1000000"})
+    int rows;
+
+    // Zip code range as from-to, optionally followed by :color
+    @Param({"30000-39999", "30000-39999:blau", "30000-30099:blau", "0-99999:blau"})
+    String range;
+
+    @Param({"50"})
+    int limit;
+
+    private PersonService personService;
+    private CsvPersonServiceImpl csvPersonService;
+    private ConfigurableApplicationContext context;
+    private int fromZip;
+    private int toZip;
+    private String color;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] rangeAndColor = range.split(":");
+        String[] zips = rangeAndColor[0].split("-");
+        fromZip = Integer.parseInt(zips[0]);
+        toZip = Integer.parseInt(zips[1]);
+        color = rangeAndColor.length > 1 ? rangeAndColor[1] : null;
+        switch (backend) {
+            case "csv" -> csvPersonService = BenchmarkFixtures.csvPersonService(CsvDataGenerator.getOrCreate(rows), DurabilityMode.ASYNC);
+            case "db" -> context = BenchmarkFixtures.databaseContext(rows, false);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+        personService = csvPersonService != null ? csvPersonService : context.getBean(PersonService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (csvPersonService != null) {
+            BenchmarkFixtures.close(csvPersonService);
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<Person> zipRange() {
+        return personService.getPersonsByZipRange(fromZip, toZip, color, 0, limit);
+    }
+
+    // What callers had to do before: go through every person and filter
+    @Benchmark
+    public List<Person> filterAll() {
+        List<Person> persons = new ArrayList<>(limit);
+        for (Person person : personService.getPersons()) {
+            int zip = ZipCodes.parse(person.getZipCode());
+            if (zip >= fromZip && zip <= toZip && (color == null || color.equals(person.getColor()))) {
+                persons.add(person);
+                if (persons.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.personcolormanager.config;
+
+import com.example.personcolormanager.service.CachingPersonService;
+import com.example.personcolormanager.service.DbPersonServiceImpl;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+// Puts a read-through cache in front of the database backend; disable with person.cache.enabled=false
+@Configuration
+@ConditionalOnProperty(name = {"database.enabled", "person.cache.enabled"}, havingValue = "true", matchIfMissing = true)
+public class PersonCacheConfig {
+
+    @Bean
+    @Primary
+    public CachingPersonService cachingPersonService(DbPersonServiceImpl dbPersonService, ColorMappingUtil colorMappingUtil,
+                                                     @Value("${person.cache.maximum-size:10000}") long maximumSize,
+                                                     @Value("${person.cache.ttl:5m}") Duration timeToLive) {
+        return new CachingPersonService(dbPersonService, colorMappingUtil, maximumSize, timeToLive);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.personcolormanager.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+
+// With spring.threads.virtual.enabled=true Spring Boot hands every request to a new virtual thread, so a
+// request blocked on the database parks its virtual thread instead of holding one of Tomcat's platform
+// threads. The number of database calls in flight is then bounded by the connection pool
+// (spring.datasource.hikari.maximum-pool-size). Spring Boot quietly ignores the property before Java 21;
+// startup fails instead, so a deployment never runs on platform threads while configured for virtual ones.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        if (!virtualThreadsSupported()) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true needs Java 21, running on "
+                    + System.getProperty("java.version"));
+        }
+        log.info("Handling requests on virtual threads");
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+    }
+}
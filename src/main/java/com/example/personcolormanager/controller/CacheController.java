@@ -0,0 +1,45 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.service.CachingPersonService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final ObjectProvider<CachingPersonService> cachingPersonService;
+
+    @Autowired
+    public CacheController(ObjectProvider<CachingPersonService> cachingPersonService) {
+        this.cachingPersonService = cachingPersonService;
+    }
+
+    // Get hit, miss and eviction counts of the person cache per query type
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Number>>> getCacheStats() {
+        CachingPersonService cache = cachingPersonService.getIfAvailable();
+        if (cache == null) {
+            return ResponseEntity.notFound().build(); // Handling case when the cache is switched off
+        }
+        Map<String, Map<String, Number>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, CacheStats> entry : cache.getCacheStats().entrySet()) {
+            CacheStats stats = entry.getValue();
+            Map<String, Number> counts = new LinkedHashMap<>();
+            counts.put("hits", stats.hitCount());
+            counts.put("misses", stats.missCount());
+            counts.put("evictions", stats.evictionCount());
+            counts.put("hitRate", stats.hitRate());
+            result.put(entry.getKey(), counts);
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.ColorCount;
+import com.example.personcolormanager.service.ColorStatistics;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import com.example.personcolormanager.util.ColorPalette;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+@RestController
+@RequestMapping("/api/colors")
+public class ColorController {
+
+    private final ColorStatistics colorStatistics;
+    private final ColorMappingUtil colorMappingUtil;
+
+    @Autowired
+    public ColorController(ColorStatistics colorStatistics, ColorMappingUtil colorMappingUtil) {
+        this.colorStatistics = colorStatistics;
+        this.colorMappingUtil = colorMappingUtil;
+    }
+
+    // Get the number of persons per color, including colors nobody has yet
+    @GetMapping("/stats")
+    public ResponseEntity<List<ColorCount>> getColorStats() {
+        ColorPalette palette = colorMappingUtil.getPalette();
+        Map<Integer, Long> counts = colorStatistics.getCounts();
+        TreeSet<Integer> colorIds = new TreeSet<>(palette.asMap().keySet());
+        colorIds.addAll(counts.keySet());
+
+        List<ColorCount> stats = new ArrayList<>(colorIds.size());
+        for (int colorId : colorIds) {
+            stats.add(new ColorCount(colorId, palette.getName(colorId), counts.getOrDefault(colorId, 0L)));
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
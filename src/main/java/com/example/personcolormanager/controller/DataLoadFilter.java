@@ -0,0 +1,50 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.service.DataLoadService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Answers API requests with 503 while the data is still loading, instead of serving an empty or partial
+// store. The body shows the load progress and Retry-After tells clients when to try again. Actuator
+// endpoints are not affected, so liveness and readiness can be probed during the load.
+@Component
+public class DataLoadFilter extends OncePerRequestFilter {
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final DataLoadService dataLoadService;
+    private final ObjectMapper objectMapper;
+
+    public DataLoadFilter(DataLoadService dataLoadService, ObjectMapper objectMapper) {
+        this.dataLoadService = dataLoadService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return dataLoadService.isReady() || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (dataLoadService.isReady()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("loads", dataLoadService.getLoads()));
+    }
+}
@@ -1,33 +1,82 @@
 package com.example.personcolormanager.controller;
 
+import com.example.personcolormanager.model.BatchItemResult;
 import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
 import com.example.personcolormanager.service.PersonService;
 import com.example.personcolormanager.util.ColorMappingUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/persons")
 public class PersonController {
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_PAGE_SIZE = 1_000;
+    private static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
 
     private final PersonService personService;
     private final ColorMappingUtil colorMappingUtil;
+    private final PersonResponseCache responseCache;
 
     @Autowired
-    public PersonController(PersonService personService, ColorMappingUtil colorMappingUtil) {
+    public PersonController(PersonService personService, ColorMappingUtil colorMappingUtil, PersonResponseCache responseCache) {
         this.personService = personService;
         this.colorMappingUtil = colorMappingUtil;
+        this.responseCache = responseCache;
     }
 
-    // Get all persons
+    // Get all persons; a request with the ETag of the last response gets 304 until a person is added
     @GetMapping
-    public ResponseEntity<List<Person>> getAllPersons() {
-        List<Person> persons = personService.getPersons();
-        return ResponseEntity.ok(persons);
+    public ResponseEntity<?> getAllPersons(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.respond("all", ifNoneMatch, acceptEncoding, personService::getPersons, false);
+    }
+
+    // Get one page of persons ordered by ID; pass the returned X-Next-After-Id as afterId for the next page
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<Person>> getPersonsPage(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Person> persons = personService.getPersonsPage(afterId, Math.min(limit, MAX_PAGE_SIZE));
+        return withNextAfterId(persons);
+    }
+
+    // Search persons by case-insensitive prefixes of name, lastName, city and zipCode, one page ordered by ID;
+    // pass the returned X-Next-After-Id as afterId for the next page
+    @GetMapping("/search")
+    public ResponseEntity<List<Person>> searchPersons(PersonSearchCriteria criteria, @RequestParam(defaultValue = "0") long afterId,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        if (criteria.isEmpty() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Person> persons = personService.searchPersons(criteria, afterId, Math.min(limit, MAX_PAGE_SIZE));
+        return withNextAfterId(persons);
+    }
+
+    // Get persons whose numeric zip code lies between from and to inclusive, optionally only of one color,
+    // one page ordered by ID; pass the returned X-Next-After-Id as afterId for the next page
+    @GetMapping("/zip")
+    public ResponseEntity<List<Person>> getPersonsByZipRange(@RequestParam int from, @RequestParam int to,
+                                                             @RequestParam(required = false) String color,
+                                                             @RequestParam(defaultValue = "0") long afterId,
+                                                             @RequestParam(defaultValue = "50") int limit) {
+        if (from < 0 || from > to || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (color != null && colorMappingUtil.getColorIdByColorName(color) == null) {
+            return ResponseEntity.notFound().build(); // Handling case when the color does not exist
+        }
+        List<Person> persons = personService.getPersonsByZipRange(from, to, color, afterId, Math.min(limit, MAX_PAGE_SIZE));
+        return withNextAfterId(persons);
     }
 
     // Get person by ID
@@ -41,15 +90,27 @@ public class PersonController {
         }
     }
 
-    // Get persons by color
+    // Get persons by color, 404 if there are none; conditional requests work as for all persons
     @GetMapping("/color/{color}")
-    public ResponseEntity<List<Person>> getPersonsByColor(@PathVariable String color) {
-        List<Person> persons = personService.getPersonByColor(color);
-        if (!persons.isEmpty()) {
-            return ResponseEntity.ok(persons);
-        } else {
-            return ResponseEntity.notFound().build(); // Handling case when no persons found with the given color
+    public ResponseEntity<?> getPersonsByColor(@PathVariable String color,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Keyed by color id, so every spelling of a color shares one entry and unknown colors are never cached
+        Integer colorId = colorMappingUtil.getColorIdByColorName(color);
+        if (colorId == null) {
+            return ResponseEntity.notFound().build(); // Handling case when the color does not exist
+        }
+        return responseCache.respond("color/" + colorId, ifNoneMatch, acceptEncoding,
+                () -> personService.getPersonByColor(color), true);
+    }
+
+    // Count persons by color, e.g. to check whether any exist without loading them
+    @GetMapping("/color/{color}/count")
+    public ResponseEntity<Long> countPersonsByColor(@PathVariable String color) {
+        if (colorMappingUtil.getColorIdByColorName(color) == null) {
+            return ResponseEntity.notFound().build(); // Handling case when the color does not exist
         }
+        return ResponseEntity.ok(personService.countPersonsByColor(color));
     }
 
     // Add a new person
@@ -67,4 +128,58 @@ public class PersonController {
         Person savedPerson = personService.addPerson(person);
         return new ResponseEntity<>(savedPerson, HttpStatus.CREATED);
     }
+
+    // Add many persons at once, with one result per submitted person
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> addPersons(@RequestBody List<Person> persons) {
+        if (persons.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
+        // Resolve all colors in one pass and only pass valid persons on to the service
+        List<BatchItemResult> results = new ArrayList<>(Collections.nCopies(persons.size(), null));
+        List<Person> acceptedPersons = new ArrayList<>(persons.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(persons.size());
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            String colorName = person.getColor();
+            if (colorName != null && !colorName.isEmpty()) {
+                Integer colorId = colorMappingUtil.getColorIdByColorName(colorName);
+                if (colorId == null) {
+                    results.set(i, BatchItemResult.rejected(i, HttpStatus.BAD_REQUEST, "Unknown color: " + colorName));
+                    continue;
+                }
+                person.setColorId(colorId);
+            } else if (!isKnownColorId(person.getColorId())) {
+                results.set(i, BatchItemResult.rejected(i, HttpStatus.BAD_REQUEST, "Unknown color id: " + person.getColorId()));
+                continue;
+            }
+            acceptedPersons.add(person);
+            acceptedIndexes.add(i);
+        }
+
+        List<Person> savedPersons = personService.addPersons(acceptedPersons);
+        for (int i = 0; i < acceptedIndexes.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            Person savedPerson = savedPersons.get(i);
+            results.set(index, savedPerson != null
+                    ? BatchItemResult.created(index, savedPerson)
+                    : BatchItemResult.rejected(index, HttpStatus.INTERNAL_SERVER_ERROR, "Person could not be stored"));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    private static ResponseEntity<List<Person>> withNextAfterId(List<Person> persons) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!persons.isEmpty()) {
+            response.header(NEXT_AFTER_ID_HEADER, String.valueOf(persons.get(persons.size() - 1).getId()));
+        }
+        return response.body(persons);
+    }
+
+    // Items without a color name must carry the id of a color in the palette
+    private boolean isKnownColorId(int colorId) {
+        String colorName = colorMappingUtil.getColorNameByColorId(colorId);
+        return colorName != null && !colorName.isEmpty();
+    }
 }
@@ -0,0 +1,212 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonChangeFeed;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes newly added persons to subscribers as server-sent events, so clients no longer have to poll
+// GET /api/persons. Each event carries a token of this run and its feed sequence as id; a client that
+// reconnects with Last-Event-ID (or since) continues after it. A subscriber that fell too far behind,
+// or whose id is from before a restart, gets a "reset" event first and should reload its persons.
+// Events are sent by a pool thread per busy subscriber, so a slow client only delays itself.
+@Slf4j
+@RestController
+@RequestMapping("/api/persons/feed")
+public class PersonFeedController {
+    private static final int EVENTS_PER_READ = 256;
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final PersonChangeFeed changeFeed;
+    private final ColorMappingUtil colorMappingUtil;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+
+    @Autowired
+    public PersonFeedController(PersonChangeFeed changeFeed, ColorMappingUtil colorMappingUtil,
+                                @Value("${person.feed.max-subscribers:100}") int maxSubscribers,
+                                @Value("${person.feed.timeout:30m}") Duration timeout) {
+        this.changeFeed = changeFeed;
+        this.colorMappingUtil = colorMappingUtil;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "person-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "person-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat),
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Subscribe to added persons, optionally of one color; without since or Last-Event-ID only new persons are sent
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam(required = false) String color,
+                                                @RequestParam(required = false) String since,
+                                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Integer colorId = null;
+        if (color != null) {
+            colorId = colorMappingUtil.getColorIdByColorName(color);
+            if (colorId == null) {
+                return ResponseEntity.notFound().build(); // Handling case when the color does not exist
+            }
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        String resumeId = since != null ? since : lastEventId;
+        Long resumeAfter = changeFeed.parseEventId(resumeId);
+        // An id of an earlier run says nothing about this run's sequences, so the client has to resynchronize
+        boolean resetDue = resumeId != null && (resumeAfter == null || changeFeed.isGap(resumeAfter));
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(emitter, colorId,
+                resumeAfter != null ? resumeAfter : changeFeed.lastSequence(), resetDue);
+        subscribers.add(subscriber);
+        changeFeed.addListener(subscriber.listener);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscriber.signal();
+        return ResponseEntity.ok(emitter);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Integer colorId;
+        private final Runnable listener = this::signal;
+        // Number of signals since the last drain started; the thread that raises it from 0 starts the drain
+        private final AtomicInteger pendingSignals = new AtomicInteger();
+        private long lastSequence;
+        private boolean resetDue;
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Integer colorId, long lastSequence, boolean resetDue) {
+            this.emitter = emitter;
+            this.colorId = colorId;
+            this.lastSequence = lastSequence;
+            this.resetDue = resetDue;
+        }
+
+        void signal() {
+            if (!closed && pendingSignals.getAndIncrement() == 0) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    close();
+                }
+            }
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            signal();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            changeFeed.removeListener(listener);
+        }
+
+        // Runs on one sender thread at a time and sends everything written since the last drain
+        private void drain() {
+            int signals = 1;
+            try {
+                do {
+                    send();
+                    signals = pendingSignals.addAndGet(-signals);
+                } while (signals != 0 && !closed);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Closing person feed subscriber: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void send() throws IOException {
+            boolean sent = false;
+            if (resetDue) {
+                resetDue = false;
+                sendReset(changeFeed.oldestSequence());
+                sent = true;
+            }
+            List<PersonChangeFeed.Entry> entries;
+            while (!closed && !(entries = changeFeed.read(lastSequence, EVENTS_PER_READ)).isEmpty()) {
+                long firstSequence = entries.get(0).getSequence();
+                if (firstSequence > lastSequence + 1) {
+                    // Entries were overwritten before this subscriber got to them
+                    sendReset(firstSequence);
+                }
+                for (PersonChangeFeed.Entry entry : entries) {
+                    lastSequence = entry.getSequence();
+                    Person person = entry.getPerson();
+                    if (colorId == null || person.getColorId() == colorId) {
+                        emitter.send(SseEmitter.event()
+                                .id(changeFeed.eventId(entry.getSequence()))
+                                .name("person")
+                                .data(person, MediaType.APPLICATION_JSON));
+                    }
+                }
+                sent = true;
+            }
+            if (heartbeatDue && !sent) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            heartbeatDue = false;
+        }
+
+        private void sendReset(long oldestSequence) throws IOException {
+            lastSequence = oldestSequence - 1;
+            emitter.send(SseEmitter.event()
+                    .id(changeFeed.eventId(lastSequence))
+                    .name("reset")
+                    .data(Map.of("oldestSequence", oldestSequence), MediaType.APPLICATION_JSON));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.ImportJob;
+import com.example.personcolormanager.service.PersonImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Bulk import of CSV files in the sample-input.csv format. The upload is spooled to a temporary file
+// and imported in the background; poll the returned job for progress.
+@RestController
+@RequestMapping("/api/persons/import")
+public class PersonImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final PersonImportService personImportService;
+
+    @Autowired
+    public PersonImportController(PersonImportService personImportService) {
+        this.personImportService = personImportService;
+    }
+
+    // Import a CSV file sent as the multipart part "file"
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJob> importMultipart(@RequestParam("file") MultipartFile file) throws IOException {
+        Path upload = Files.createTempFile("person-import-", ".csv");
+        try {
+            file.transferTo(upload);
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        return accepted(personImportService.startImport(upload, file.getOriginalFilename()));
+    }
+
+    // Import a CSV file sent as the request body
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ImportJob> importBody(HttpServletRequest request,
+                                                @RequestParam(defaultValue = "upload.csv") String fileName) throws IOException {
+        Path upload = Files.createTempFile("person-import-", ".csv");
+        try (InputStream body = request.getInputStream()) {
+            Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        return accepted(personImportService.startImport(upload, fileName));
+    }
+
+    // Get the progress of an import
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        ImportJob job = personImportService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build(); // Handling case when the job is unknown or expired
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private static ResponseEntity<ImportJob> accepted(ImportJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/persons/import/" + job.getId()))
+                .body(job);
+    }
+}
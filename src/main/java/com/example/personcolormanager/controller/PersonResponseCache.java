@@ -0,0 +1,272 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonService;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Serves person listings as pre-serialized JSON, pre-gzipped for clients that accept it.
+// Every response carries a weak ETag made of a token per application start, the data version of the
+// PersonService and the color palette version, so the ETag changes whenever the body could. A request
+// whose If-None-Match carries the current ETag gets 304 without any person being read or serialized;
+// otherwise the body is taken from a cache keyed by query, which holds one version per query and is
+// bounded by the total size of the bodies. A listing larger than that bound is not buffered at all: its
+// persons are handed to the message converter, which streams them to the client.
+@Component
+public class PersonResponseCache {
+    // Smaller bodies fit into a packet or two anyway
+    static final int MIN_GZIP_SIZE = 1024;
+
+    private final PersonService personService;
+    private final ColorMappingUtil colorMappingUtil;
+    private final ObjectMapper objectMapper;
+    private final boolean gzipEnabled;
+    // Bodies larger than this are streamed instead of cached
+    private final long maximumBytes;
+    private final Cache<String, SerializedResponse> responses;
+    // Versions start over on every start, so an ETag from an earlier run must not match
+    private final String instanceToken = Long.toString(System.currentTimeMillis(), 36);
+
+    @Autowired
+    public PersonResponseCache(PersonService personService, ColorMappingUtil colorMappingUtil, ObjectMapper objectMapper,
+                               @Value("${person.response-cache.maximum-bytes:67108864}") long maximumBytes,
+                               @Value("${person.response-cache.gzip:true}") boolean gzipEnabled) {
+        this.personService = personService;
+        this.colorMappingUtil = colorMappingUtil;
+        this.objectMapper = objectMapper;
+        this.gzipEnabled = gzipEnabled;
+        this.maximumBytes = maximumBytes;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, SerializedResponse response) -> response.weight())
+                .recordStats()
+                .build();
+    }
+
+    // Respond with the persons the query returns, cached under key; 404 instead of an empty list if notFoundWhenEmpty.
+    // The body is the serialized JSON, or the list of persons itself if it is too large to be cached.
+    public ResponseEntity<?> respond(String key, String ifNoneMatch, String acceptEncoding,
+                                     Supplier<List<Person>> query, boolean notFoundWhenEmpty) {
+        // Read the version before the data: a body cached under an older ETag is replaced on the next request
+        String eTag = currentETag();
+        // A listing that is 404 when empty might not exist, so * is only answered once it has been looked at
+        if (matches(ifNoneMatch, eTag, !notFoundWhenEmpty)) {
+            return notModified(eTag);
+        }
+
+        SerializedResponse response = responses.getIfPresent(key);
+        List<Person> persons = null;
+        if (response == null || !response.eTag.equals(eTag)) {
+            persons = query.get();
+            response = serialize(eTag, persons);
+            if (eTag.equals(currentETag())) {
+                responses.put(key, response);
+            }
+        }
+        if (notFoundWhenEmpty && response.empty) {
+            return ResponseEntity.notFound().build();
+        }
+        if (notFoundWhenEmpty && matches(ifNoneMatch, eTag, true)) {
+            return notModified(eTag);
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (response.oversized) {
+            // Written by the JSON message converter while the persons are serialized
+            return builder.body(persons != null ? persons : query.get());
+        }
+        if (response.gzip != null && acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzip);
+        }
+        return builder.body(response.json);
+    }
+
+    // Get the cache, e.g. to bind it to metrics
+    public Cache<String, ?> getCache() {
+        return responses;
+    }
+
+    private static ResponseEntity<?> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    private String currentETag() {
+        return "W/\"" + instanceToken + "-" + personService.getDataVersion() + "-" + colorMappingUtil.getPaletteVersion() + "\"";
+    }
+
+    // Serialize the persons, or give up once the body grows beyond what the cache may hold
+    private SerializedResponse serialize(String eTag, List<Person> persons) {
+        BoundedOutputStream out = new BoundedOutputStream(maximumBytes);
+        try {
+            objectMapper.writeValue(out, persons);
+        } catch (BodyTooLargeException e) {
+            return SerializedResponse.oversized(eTag);
+        } catch (IOException e) {
+            throw new IllegalStateException("Persons could not be serialized", e);
+        }
+        byte[] json = out.toByteArray();
+        byte[] gzip = gzipEnabled && json.length >= MIN_GZIP_SIZE ? gzip(json) : null;
+        return new SerializedResponse(eTag, json, gzip != null && gzip.length < json.length ? gzip : null, persons.isEmpty());
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    // Weak comparison as in RFC 9110: W/ prefixes are ignored, and * matches if a current representation exists
+    static boolean matches(String ifNoneMatch, String eTag, boolean exists) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaqueTag = stripWeak(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") ? exists : stripWeak(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    // True if Accept-Encoding allows gzip, explicitly or through *, with a quality above 0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                gzipQuality = quality(parts);
+            } else if (name.equals("*")) {
+                anyQuality = quality(parts);
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : anyQuality > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static final class SerializedResponse {
+        final String eTag;
+        // Null if the body was too large to be cached
+        final byte[] json;
+        // Null if gzip is disabled or would not make the body smaller
+        final byte[] gzip;
+        final boolean empty;
+        // Remembered per ETag, so the next request streams right away instead of trying to buffer again
+        final boolean oversized;
+
+        SerializedResponse(String eTag, byte[] json, byte[] gzip, boolean empty) {
+            this(eTag, json, gzip, empty, false);
+        }
+
+        private SerializedResponse(String eTag, byte[] json, byte[] gzip, boolean empty, boolean oversized) {
+            this.eTag = eTag;
+            this.json = json;
+            this.gzip = gzip;
+            this.empty = empty;
+            this.oversized = oversized;
+        }
+
+        static SerializedResponse oversized(String eTag) {
+            return new SerializedResponse(eTag, null, null, false, true);
+        }
+
+        int weight() {
+            long bytes = (json != null ? json.length : 0L) + (gzip != null ? gzip.length : 0) + 64;
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+    }
+
+    // Collects the serialized body and fails as soon as it exceeds the limit
+    private static final class BoundedOutputStream extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        private final long limit;
+
+        BoundedOutputStream(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureRoom(1);
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            ensureRoom(length);
+            buffer.write(bytes, offset, length);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+
+        private void ensureRoom(int length) throws BodyTooLargeException {
+            if (buffer.size() + (long) length > limit) {
+                throw new BodyTooLargeException();
+            }
+        }
+    }
+
+    // Checked, so Jackson passes it on instead of wrapping it
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException() {
+            super("Body exceeds the response cache size");
+        }
+    }
+}
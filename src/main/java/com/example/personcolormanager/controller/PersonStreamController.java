@@ -0,0 +1,65 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Streams all persons as newline-delimited JSON while they are read, so memory use does not grow with the dataset
+@RestController
+@RequestMapping("/api/persons")
+public class PersonStreamController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final int FLUSH_EVERY_ROWS = 256;
+
+    private final PersonService personService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PersonStreamController(PersonService personService, ObjectMapper objectMapper) {
+        this.personService = personService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Get all persons, one JSON object per line
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPersons() {
+        ObjectWriter personWriter = objectMapper.writerFor(Person.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null); // Lines are separated by the newline written below
+                int[] rows = {0};
+                try {
+                    personService.streamPersons(person -> {
+                        try {
+                            personWriter.writeValue(generator, person);
+                            generator.writeRaw('\n');
+                            if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                                generator.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .header("Content-Type", APPLICATION_NDJSON_VALUE)
+                .body(body);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Reads persons from CSV input in batches of at most batchSize, with the same parsing rules as the
+// ingestion engines. Only one input buffer and one batch are held at a time, so memory does not
+// grow with the input. Not thread-safe.
+public class CsvBatchReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream inputStream;
+    private final int batchSize;
+    private final CsvRowParser parser = new CsvRowParser();
+    private final List<String> malformedSamples = new ArrayList<>();
+    private byte[] bytes = new byte[BUFFER_SIZE];
+    private ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+    private int filled;
+    private boolean firstRead = true;
+    private boolean endOfInput;
+    private long bytesRead;
+    private long malformedRows;
+
+    public CsvBatchReader(InputStream inputStream, int batchSize) {
+        this.inputStream = inputStream;
+        this.batchSize = batchSize;
+    }
+
+    // Next persons in file order, without ids and color names; empty once the input is exhausted
+    public List<Person> nextBatch() throws IOException {
+        ParsedChunk batch = new ParsedChunk();
+        while (batch.persons.size() < batchSize && !(endOfInput && position == filled)) {
+            if (!firstRead) {
+                position = batch.parseLines(parser, buffer, position, filled, endOfInput, batchSize);
+            }
+            if (batch.persons.size() < batchSize && !endOfInput) {
+                fill();
+            }
+        }
+        malformedRows += batch.malformedRows;
+        for (String sample : batch.malformedSamples) {
+            if (malformedSamples.size() < ParsedChunk.MAX_MALFORMED_SAMPLES) {
+                malformedSamples.add(sample);
+            }
+        }
+        return batch.persons;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    // Rows skipped so far because they could not be parsed
+    public long getMalformedRows() {
+        return malformedRows;
+    }
+
+    public List<String> getMalformedSamples() {
+        return Collections.unmodifiableList(malformedSamples);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    // Move the unparsed bytes to the front of the buffer and read more input after them
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, filled - position);
+            filled -= position;
+            position = 0;
+        }
+        if (filled == bytes.length) {
+            // A single line is longer than the buffer
+            bytes = Arrays.copyOf(bytes, bytes.length << 1);
+            buffer = ByteBuffer.wrap(bytes);
+        }
+        int read = inputStream.read(bytes, filled, bytes.length - filled);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            filled += read;
+            bytesRead += read;
+        }
+        if (firstRead && (filled >= 3 || endOfInput)) {
+            position = ParsedChunk.skipByteOrderMark(buffer, 0, filled);
+            firstRead = false;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.personcolormanager.ingest;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+// Strategy for turning a person CSV resource into Person objects.
+// Implementations assign ids 1..n in file order, the same way the original loader did.
+public interface CsvIngestionEngine {
+    IngestionResult ingest(Resource resource) throws IOException;
+
+    // Ingest and pass the number of bytes parsed to progress as parsing goes on; it may be called from several threads
+    default IngestionResult ingest(Resource resource, LongConsumer progress) throws IOException {
+        IngestionResult result = ingest(resource);
+        progress.accept(result.getBytesRead());
+        return result;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Low-allocation tokenizer for one line of the person CSV format:
+//   lastName, name, zipCode city, colorId [trailing tokens][, id][, ignored columns]
+// Lines appended by the service carry the id of the person; rows without one get an id on load.
+// Works directly on the UTF-8 bytes and only allocates the resulting strings.
+// Instances keep a scratch buffer and are not thread-safe.
+public class CsvRowParser {
+    private static final byte COMMA = ',';
+    private static final byte SPACE = ' ';
+    // Largest value parseNumber can check without overflowing
+    private static final long MAX_ID = (Long.MAX_VALUE - 9) / 10;
+
+    private byte[] scratch = new byte[256];
+
+    // Parse the bytes in [start, end) into a Person without color name, or null if the row is malformed.
+    // The id is 0 unless the row carries one.
+    public Person parse(ByteBuffer buffer, int start, int end) {
+        int firstComma = indexOf(buffer, start, end, COMMA);
+        if (firstComma < 0) {
+            return null;
+        }
+        int secondComma = indexOf(buffer, firstComma + 1, end, COMMA);
+        if (secondComma < 0) {
+            return null;
+        }
+        int thirdComma = indexOf(buffer, secondComma + 1, end, COMMA);
+        if (thirdComma < 0) {
+            return null;
+        }
+        int fourthComma = indexOf(buffer, thirdComma + 1, end, COMMA);
+        int colorEnd = fourthComma < 0 ? end : fourthComma;
+
+        // Color id field: only the first token counts, anything after a space is ignored
+        int colorStart = trimStart(buffer, thirdComma + 1, colorEnd);
+        colorEnd = trimEnd(buffer, colorStart, colorEnd);
+        int colorTokenEnd = indexOf(buffer, colorStart, colorEnd, SPACE);
+        long colorId = parseNumber(buffer, colorStart, colorTokenEnd < 0 ? colorEnd : colorTokenEnd, Integer.MAX_VALUE);
+        if (colorId < 0) {
+            return null;
+        }
+
+        // Id field: a column that is not a number is ignored like any further column
+        long id = 0;
+        if (fourthComma >= 0) {
+            int idEnd = indexOf(buffer, fourthComma + 1, end, COMMA);
+            if (idEnd < 0) {
+                idEnd = end;
+            }
+            int idStart = trimStart(buffer, fourthComma + 1, idEnd);
+            id = Math.max(0, parseNumber(buffer, idStart, trimEnd(buffer, idStart, idEnd), MAX_ID));
+        }
+
+        // Zip code and city share one field, separated by the first space
+        int zipStart = trimStart(buffer, secondComma + 1, thirdComma);
+        int zipCityEnd = trimEnd(buffer, zipStart, thirdComma);
+        int zipEnd = indexOf(buffer, zipStart, zipCityEnd, SPACE);
+        String zipCode;
+        String city;
+        if (zipEnd < 0) {
+            zipCode = decode(buffer, zipStart, zipCityEnd);
+            city = "";
+        } else {
+            zipCode = decode(buffer, zipStart, zipEnd);
+            city = decode(buffer, trimStart(buffer, zipEnd, zipCityEnd), zipCityEnd);
+        }
+
+        String lastName = decodeTrimmed(buffer, start, firstComma);
+        String name = decodeTrimmed(buffer, firstComma + 1, secondComma);
+        return new Person(id, name, lastName, zipCode, city, null, (int) colorId);
+    }
+
+    // Check whether [start, end) only contains whitespace
+    public static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        return trimStart(buffer, start, end) == end;
+    }
+
+    // Read the bytes in [start, end) as a UTF-8 string, for diagnostics
+    public static String toString(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Same rule as String.trim(): every byte up to and including the space is whitespace
+    private static int trimStart(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= SPACE) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(ByteBuffer buffer, int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= SPACE) {
+            end--;
+        }
+        return end;
+    }
+
+    // Parse a non-negative number up to max, returning -1 if the bytes are not a valid number
+    private static long parseNumber(ByteBuffer buffer, int start, int end, long max) {
+        if (start < end && buffer.get(start) == '+') {
+            start++;
+        }
+        if (start == end) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+            if (value > max) {
+                return -1;
+            }
+        }
+        return value;
+    }
+
+    private String decodeTrimmed(ByteBuffer buffer, int start, int end) {
+        int trimmedStart = trimStart(buffer, start, end);
+        return decode(buffer, trimmedStart, trimEnd(buffer, trimmedStart, end));
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return "";
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length << 1)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class IngestionResult {
+
+    // Persons in file order with ids assigned and color names still unset
+    private final List<Person> persons;
+
+    // Rows that could not be parsed and were skipped
+    private final long malformedRows;
+
+    // A few of the skipped rows, for diagnostics
+    private final List<String> malformedSamples;
+
+    private final long bytesRead;
+
+    private final long elapsedNanos;
+}
@@ -0,0 +1,149 @@
+package com.example.personcolormanager.ingest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+
+// Memory-maps the CSV file, splits it into line-aligned chunks and parses them on a fork-join pool.
+// Resources that are not plain files (e.g. inside a jar) are streamed sequentially instead.
+@Component
+@ConditionalOnProperty(value = "csv.ingestion.engine", havingValue = "parallel", matchIfMissing = true)
+public class ParallelCsvIngestionEngine implements CsvIngestionEngine {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 64 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final SequentialCsvIngestionEngine fallbackEngine = new SequentialCsvIngestionEngine();
+
+    @Autowired
+    public ParallelCsvIngestionEngine(@Value("${csv.ingestion.parallelism:0}") int parallelism) {
+        this(parallelism, 0);
+    }
+
+    // A chunk size of 0 derives the chunk size from the file size and parallelism
+    public ParallelCsvIngestionEngine(int parallelism, int chunkSize) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public IngestionResult ingest(Resource resource) throws IOException {
+        return ingest(resource, bytes -> { });
+    }
+
+    @Override
+    public IngestionResult ingest(Resource resource, LongConsumer progress) throws IOException {
+        if (!resource.isFile()) {
+            return fallbackEngine.ingest(resource, progress);
+        }
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = splitIntoChunks(channel, size);
+            ParsedChunk[] chunks = new ParsedChunk[boundaries.length - 1];
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new ChunkTask(channel, boundaries, chunks, 0, chunks.length, progress));
+            } finally {
+                pool.shutdown();
+            }
+            return ParsedChunk.toResult(Arrays.asList(chunks), size, startNanos);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Compute chunk boundaries so that every chunk ends right after a newline
+    private long[] splitIntoChunks(FileChannel channel, long size) throws IOException {
+        long targetSize = chunkSize > 0
+                ? chunkSize
+                : Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD)));
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        long position = 0;
+        while (position < size) {
+            long next = position + targetSize >= size ? size : nextLineStart(channel, position + targetSize, size);
+            boundaries.add(next);
+            position = next;
+        }
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(8192);
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final ParsedChunk[] chunks;
+        private final int from;
+        private final int to;
+        private final LongConsumer progress;
+
+        ChunkTask(FileChannel channel, long[] boundaries, ParsedChunk[] chunks, int from, int to, LongConsumer progress) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(channel, boundaries, chunks, from, middle, progress),
+                        new ChunkTask(channel, boundaries, chunks, middle, to, progress));
+                return;
+            }
+            long start = boundaries[from];
+            long end = boundaries[from + 1];
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                int offset = start == 0 ? ParsedChunk.skipByteOrderMark(buffer, 0, buffer.limit()) : 0;
+                ParsedChunk chunk = new ParsedChunk();
+                chunk.parseLines(new CsvRowParser(), buffer, offset, buffer.limit(), true);
+                chunks[from] = chunk;
+                progress.accept(end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows parsed from one line-aligned slice of the input, before missing ids are assigned
+class ParsedChunk {
+    static final int MAX_MALFORMED_SAMPLES = 5;
+
+    final List<Person> persons = new ArrayList<>();
+    final List<String> malformedSamples = new ArrayList<>();
+    long malformedRows;
+
+    // Parse every complete line in [start, end) and return the offset of the first unconsumed byte.
+    // When endOfInput is set a trailing line without newline is parsed as well.
+    int parseLines(CsvRowParser parser, ByteBuffer buffer, int start, int end, boolean endOfInput) {
+        return parseLines(parser, buffer, start, end, endOfInput, Integer.MAX_VALUE);
+    }
+
+    // Same, but stop once the chunk holds maxPersons persons
+    int parseLines(CsvRowParser parser, ByteBuffer buffer, int start, int end, boolean endOfInput, int maxPersons) {
+        int lineStart = start;
+        while (lineStart < end && persons.size() < maxPersons) {
+            int newline = CsvRowParser.indexOf(buffer, lineStart, end, (byte) '\n');
+            if (newline < 0 && !endOfInput) {
+                return lineStart;
+            }
+            int lineEnd = newline < 0 ? end : newline;
+            if (!CsvRowParser.isBlank(buffer, lineStart, lineEnd)) {
+                Person person = parser.parse(buffer, lineStart, lineEnd);
+                if (person != null) {
+                    persons.add(person);
+                } else {
+                    malformedRows++;
+                    if (malformedSamples.size() < MAX_MALFORMED_SAMPLES) {
+                        malformedSamples.add(CsvRowParser.toString(buffer, lineStart, lineEnd).trim());
+                    }
+                }
+            }
+            lineStart = newline < 0 ? end : newline + 1;
+        }
+        return lineStart;
+    }
+
+    // Concatenate chunks in file order. Rows keep the id they carry; the others, and rows whose id does
+    // not ascend in file order, continue the numbering from the row before, which yields 1..n without ids.
+    static IngestionResult toResult(List<ParsedChunk> chunks, long bytesRead, long startNanos) {
+        int total = 0;
+        long malformedRows = 0;
+        List<String> malformedSamples = new ArrayList<>();
+        for (ParsedChunk chunk : chunks) {
+            total += chunk.persons.size();
+            malformedRows += chunk.malformedRows;
+            for (String sample : chunk.malformedSamples) {
+                if (malformedSamples.size() < MAX_MALFORMED_SAMPLES) {
+                    malformedSamples.add(sample);
+                }
+            }
+        }
+
+        List<Person> persons = new ArrayList<>(total);
+        long lastId = 0;
+        for (ParsedChunk chunk : chunks) {
+            for (Person person : chunk.persons) {
+                if (person.getId() <= lastId) {
+                    person.setId(lastId + 1);
+                }
+                lastId = person.getId();
+                persons.add(person);
+            }
+        }
+        return new IngestionResult(persons, malformedRows, malformedSamples, bytesRead, System.nanoTime() - startNanos);
+    }
+
+    // Offset of the first byte after a UTF-8 byte order mark, if there is one at the start
+    static int skipByteOrderMark(ByteBuffer buffer, int start, int end) {
+        if (end - start >= 3
+                && buffer.get(start) == (byte) 0xEF
+                && buffer.get(start + 1) == (byte) 0xBB
+                && buffer.get(start + 2) == (byte) 0xBF) {
+            return start + 3;
+        }
+        return start;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Binary snapshot of the persons loaded from a CSV file, so a restart can skip parsing.
+//
+// Layout (big endian):
+//   header  magic "PCMS", version, CSV length, CSV last modified millis, malformed rows,
+//           string count, person count
+//   strings every distinct name, last name, zip code and city once, as byte length + UTF-8 bytes
+//   persons fixed-size records: id, colorId, then name, lastName, zipCode and city as string
+//           table indexes (-1 for null)
+//   trailer CRC32 of everything between header and trailer
+//
+// Names and cities repeat a lot, so each distinct string is decoded once on load and shared by
+// all persons using it. A snapshot is only used while the CSV file still has the length and
+// modification time it was taken from; any append or edit of the CSV makes it stale.
+// The file is not in PersonStore's column layout: loading still creates a Person per row, which the
+// store then encodes again. It saves the parsing, not the building of the store.
+public final class PersonSnapshotFile {
+    private static final int MAGIC = 0x50434D53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4;
+    private static final int RECORD_SIZE = 8 + 4 + 4 * 4;
+    private static final int TRAILER_SIZE = 8;
+    private static final int NO_STRING = -1;
+
+    private PersonSnapshotFile() {
+    }
+
+    // Snapshot file kept next to the given CSV file
+    public static Path forCsvFile(Path csvFile) {
+        return csvFile.resolveSibling(csvFile.getFileName() + ".snapshot");
+    }
+
+    // Write the persons to the snapshot file, replacing it atomically
+    public static void write(Path snapshotFile, long csvLength, long csvLastModified, List<Person> persons,
+                             long malformedRows) throws IOException {
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Person person : persons) {
+            for (String value : new String[]{person.getName(), person.getLastName(), person.getZipCode(), person.getCity()}) {
+                if (value != null && stringIndexes.putIfAbsent(value, strings.size()) == null) {
+                    strings.add(value);
+                }
+            }
+        }
+
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream header = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(csvLength);
+            header.writeLong(csvLastModified);
+            header.writeLong(malformedRows);
+            header.writeInt(strings.size());
+            header.writeInt(persons.size());
+
+            CRC32 checksum = new CRC32();
+            DataOutputStream body = new DataOutputStream(new CheckedOutputStream(header, checksum));
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                body.writeInt(bytes.length);
+                body.write(bytes);
+            }
+            for (Person person : persons) {
+                body.writeLong(person.getId());
+                body.writeInt(person.getColorId());
+                body.writeInt(stringIndexes.getOrDefault(person.getName(), NO_STRING));
+                body.writeInt(stringIndexes.getOrDefault(person.getLastName(), NO_STRING));
+                body.writeInt(stringIndexes.getOrDefault(person.getZipCode(), NO_STRING));
+                body.writeInt(stringIndexes.getOrDefault(person.getCity(), NO_STRING));
+            }
+            header.writeLong(checksum.getValue());
+            header.flush();
+            channel.force(true);
+        }
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Read the snapshot if it was taken from the CSV file in its current state; returns null if the
+    // snapshot does not exist or is stale, and throws if it is damaged
+    public static IngestionResult read(Path snapshotFile, long csvLength, long csvLastModified) throws IOException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE + TRAILER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + snapshotFile + " has an invalid size of " + fileSize + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(snapshotFile + " is not a person snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            if (buffer.getLong() != csvLength || buffer.getLong() != csvLastModified) {
+                return null;
+            }
+            long malformedRows = buffer.getLong();
+            int stringCount = buffer.getInt();
+            int personCount = buffer.getInt();
+            // The header is not covered by the checksum, so its counts are checked against the file size
+            // before anything is allocated for them
+            long bodySize = fileSize - HEADER_SIZE - TRAILER_SIZE;
+            if (malformedRows < 0 || stringCount < 0 || personCount < 0
+                    || 4L * stringCount + (long) personCount * RECORD_SIZE > bodySize) {
+                throw new IOException("Snapshot " + snapshotFile + " has an invalid header");
+            }
+
+            int bodyEnd = (int) fileSize - TRAILER_SIZE;
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.slice(HEADER_SIZE, bodyEnd - HEADER_SIZE));
+            if (checksum.getValue() != buffer.getLong(bodyEnd)) {
+                throw new IOException("Snapshot " + snapshotFile + " failed the checksum test");
+            }
+
+            String[] strings = new String[stringCount];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < stringCount; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > bodyEnd - buffer.position()) {
+                    throw new IOException("Snapshot " + snapshotFile + " has a string of invalid length " + length);
+                }
+                byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            if (bodyEnd - buffer.position() != (long) personCount * RECORD_SIZE) {
+                throw new IOException("Snapshot " + snapshotFile + " does not hold " + personCount + " persons");
+            }
+
+            List<Person> persons = new ArrayList<>(personCount);
+            for (int i = 0; i < personCount; i++) {
+                Person person = new Person();
+                person.setId(buffer.getLong());
+                person.setColorId(buffer.getInt());
+                person.setName(string(strings, buffer.getInt()));
+                person.setLastName(string(strings, buffer.getInt()));
+                person.setZipCode(string(strings, buffer.getInt()));
+                person.setCity(string(strings, buffer.getInt()));
+                persons.add(person);
+            }
+            return new IngestionResult(persons, malformedRows, Collections.emptyList(), fileSize, System.nanoTime() - startNanos);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static String string(String[] strings, int index) throws IOException {
+        if (index == NO_STRING) {
+            return null;
+        }
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Snapshot refers to missing string " + index);
+        }
+        return strings[index];
+    }
+}
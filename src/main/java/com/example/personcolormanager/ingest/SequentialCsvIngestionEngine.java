@@ -0,0 +1,69 @@
+package com.example.personcolormanager.ingest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+// Single-threaded ingestion that streams the resource through a reusable byte buffer.
+// Works for any resource, including ones packaged inside a jar.
+@Component
+@ConditionalOnProperty(value = "csv.ingestion.engine", havingValue = "sequential")
+public class SequentialCsvIngestionEngine implements CsvIngestionEngine {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    @Override
+    public IngestionResult ingest(Resource resource) throws IOException {
+        return ingest(resource, bytes -> { });
+    }
+
+    @Override
+    public IngestionResult ingest(Resource resource, LongConsumer progress) throws IOException {
+        long startNanos = System.nanoTime();
+        ParsedChunk chunk = new ParsedChunk();
+        CsvRowParser parser = new CsvRowParser();
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long bytesRead = 0;
+        int filled = 0;
+        boolean firstRead = true;
+
+        try (InputStream inputStream = resource.getInputStream()) {
+            while (true) {
+                if (filled == bytes.length) {
+                    // A single line is longer than the buffer
+                    bytes = Arrays.copyOf(bytes, bytes.length << 1);
+                    buffer = ByteBuffer.wrap(bytes);
+                }
+                int read = inputStream.read(bytes, filled, bytes.length - filled);
+                boolean endOfInput = read < 0;
+                if (!endOfInput) {
+                    filled += read;
+                    bytesRead += read;
+                }
+
+                int start = 0;
+                if (firstRead && (filled >= 3 || endOfInput)) {
+                    start = ParsedChunk.skipByteOrderMark(buffer, 0, filled);
+                    firstRead = false;
+                } else if (firstRead) {
+                    continue;
+                }
+                int consumed = chunk.parseLines(parser, buffer, start, filled, endOfInput);
+                progress.accept(consumed);
+                if (endOfInput) {
+                    break;
+                }
+                System.arraycopy(bytes, consumed, bytes, 0, filled - consumed);
+                filled -= consumed;
+            }
+        }
+        return ParsedChunk.toResult(List.of(chunk), bytesRead, startNanos);
+    }
+}
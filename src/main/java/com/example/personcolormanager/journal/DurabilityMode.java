@@ -0,0 +1,11 @@
+package com.example.personcolormanager.journal;
+
+// How far an append must get before the caller's write is acknowledged
+public enum DurabilityMode {
+    // Every record is written and fsynced on its own
+    FSYNC_EACH,
+    // Pending records are written together and share one fsync
+    GROUP_FSYNC,
+    // Records are acknowledged once queued and written in batches without fsync
+    ASYNC
+}
@@ -0,0 +1,211 @@
+package com.example.personcolormanager.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// Append-only log over a single long-lived file channel.
+// Callers enqueue lines; one writer thread drains the queue in groups, writes each group with a
+// single gathering write and, depending on the durability mode, a single fsync before completing it.
+// A group that fails is cut off the file again, so no line of it is half written or read back on the
+// next load although its callers were told it failed.
+@Slf4j
+public class PersonAppendLog implements Closeable {
+    private static final int MAX_GROUP_SIZE = 1024;
+    private static final byte NEWLINE = '\n';
+
+    private final FileChannel channel;
+    private final DurabilityMode durabilityMode;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean closed;
+    // Set when a failed group could not be cut off; later lines would follow its partial line
+    private IOException damaged;
+
+    public PersonAppendLog(Path path, DurabilityMode durabilityMode) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), durabilityMode);
+    }
+
+    PersonAppendLog(FileChannel channel, DurabilityMode durabilityMode) {
+        this.channel = channel;
+        this.durabilityMode = durabilityMode;
+        this.writerThread = new Thread(this::runWriter, "person-append-log");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    // Queue a line for appending. The returned future completes once the line is written with the
+    // configured durability; onWritten runs in log order right before that. In ASYNC mode onWritten
+    // runs immediately on the calling thread and the future is already complete.
+    public synchronized CompletableFuture<Void> append(String line, Runnable onWritten) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IOException("Append log is closed"));
+        }
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        if (durabilityMode == DurabilityMode.ASYNC) {
+            onWritten.run();
+            queue.add(new PendingWrite(bytes, () -> { }));
+            return CompletableFuture.completedFuture(null);
+        }
+        PendingWrite pendingWrite = new PendingWrite(bytes, onWritten);
+        queue.add(pendingWrite);
+        return pendingWrite.future;
+    }
+
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    private void runWriter() {
+        List<PendingWrite> group = new ArrayList<>(MAX_GROUP_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                if (durabilityMode != DurabilityMode.FSYNC_EACH) {
+                    queue.drainTo(group, MAX_GROUP_SIZE - 1);
+                }
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingWrite> group) {
+        long groupStart = -1;
+        try {
+            if (damaged != null) {
+                throw damaged;
+            }
+            groupStart = channel.position();
+            ByteBuffer[] buffers = new ByteBuffer[group.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteBuffer.wrap(group.get(i).line);
+            }
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            if (durabilityMode != DurabilityMode.ASYNC) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            log.error("Error appending {} records to the person log: {}", group.size(), e.getMessage());
+            if (groupStart >= 0) {
+                truncate(groupStart);
+            }
+            for (PendingWrite pendingWrite : group) {
+                pendingWrite.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (PendingWrite pendingWrite : group) {
+            try {
+                pendingWrite.onWritten.run();
+                pendingWrite.future.complete(null);
+            } catch (RuntimeException e) {
+                pendingWrite.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Cut off what a failed group wrote; the channel appends, so the next group starts there again
+    private void truncate(long groupStart) {
+        try {
+            channel.truncate(groupStart);
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("Error truncating the person log after a failed append, rejecting further appends: {}", e.getMessage());
+            damaged = new IOException("Person log holds a partially written group", e);
+        }
+    }
+
+    // Stop accepting appends, write everything still queued and close the file
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingWrite pendingWrite;
+        while ((pendingWrite = queue.poll()) != null) {
+            pendingWrite.future.completeExceptionally(new IOException("Append log is closed"));
+        }
+        channel.force(false);
+        channel.close();
+    }
+
+    // Repair a log whose last line was torn by a crash. A last line without newline is kept (and
+    // terminated) when isCompleteLine accepts it, otherwise it is truncated away.
+    public static void recover(Path path, Predicate<String> isCompleteLine) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0 || readByte(channel, size - 1) == NEWLINE) {
+                return;
+            }
+            long lineStart = size - 1;
+            while (lineStart > 0 && readByte(channel, lineStart - 1) != NEWLINE) {
+                lineStart--;
+            }
+            ByteBuffer tail = ByteBuffer.allocate((int) (size - lineStart));
+            while (tail.hasRemaining() && channel.read(tail, lineStart + tail.position()) >= 0) {
+                // keep reading until the tail is complete
+            }
+            String lastLine = new String(tail.array(), StandardCharsets.UTF_8);
+            if (isCompleteLine.test(lastLine)) {
+                channel.write(ByteBuffer.wrap(new byte[]{NEWLINE}), size);
+            } else {
+                log.warn("Truncating torn last line of {}: {}", path.getFileName(), lastLine);
+                channel.truncate(lineStart);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, position);
+        return buffer.get(0);
+    }
+
+    private static class PendingWrite {
+        private final byte[] line;
+        private final Runnable onWritten;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite(byte[] line, Runnable onWritten) {
+            this.line = line;
+            this.onWritten = onWritten;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.personcolormanager.metrics;
+
+import com.example.personcolormanager.model.DataLoad;
+import com.example.personcolormanager.service.DataLoadService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Health contributor "dataLoad", part of the readiness group: OUT_OF_SERVICE while colors or persons are
+// still loading, DOWN if a load failed, UP afterwards. The details show the progress of every load.
+@Component
+public class DataLoadHealthIndicator implements HealthIndicator {
+    private final DataLoadService dataLoadService;
+
+    public DataLoadHealthIndicator(DataLoadService dataLoadService) {
+        this.dataLoadService = dataLoadService;
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        Status status = Status.UP;
+        for (DataLoad load : dataLoadService.getLoads()) {
+            details.put(load.getName(), load);
+            if (load.getStatus() == DataLoad.Status.FAILED) {
+                status = Status.DOWN;
+            } else if (load.getStatus() == DataLoad.Status.LOADING && status == Status.UP) {
+                status = Status.OUT_OF_SERVICE;
+            }
+        }
+        return Health.status(status).withDetails(details).build();
+    }
+}
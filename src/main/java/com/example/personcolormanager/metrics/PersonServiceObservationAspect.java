@@ -0,0 +1,65 @@
+package com.example.personcolormanager.metrics;
+
+import com.example.personcolormanager.service.CachingPersonService;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import com.example.personcolormanager.service.DbPersonServiceImpl;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+// Observes every PersonService call as "person.service", tagged with the method and the backend.
+// The observation registry turns this into a timer (and a span when a tracer is on the classpath);
+// a cache hit and the database call behind a cache miss are recorded separately.
+@Aspect
+@Component
+public class PersonServiceObservationAspect {
+    static final String OBSERVATION_NAME = "person.service";
+
+    // Backend tag per implementation class, computed once per class
+    private static final ClassValue<String> BACKENDS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            if (CsvPersonServiceImpl.class.isAssignableFrom(type)) {
+                return "csv";
+            }
+            if (DbPersonServiceImpl.class.isAssignableFrom(type)) {
+                return "db";
+            }
+            if (CachingPersonService.class.isAssignableFrom(type)) {
+                return "cache";
+            }
+            return type.getSimpleName();
+        }
+    };
+
+    private final ObservationRegistry observationRegistry;
+
+    public PersonServiceObservationAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    // getDataVersion is left out: it is a field read polled on every conditional request
+    @Around("execution(* com.example.personcolormanager.service.PersonService.*(..))"
+            + " && !execution(long com.example.personcolormanager.service.PersonService.getDataVersion())")
+    @SuppressWarnings("try") // The scope is only held open around the call, never referenced
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                .contextualName("PersonService." + method)
+                .lowCardinalityKeyValue("method", method)
+                .lowCardinalityKeyValue("backend", BACKENDS.get(AopUtils.getTargetClass(joinPoint.getTarget())))
+                .start();
+        try (Observation.Scope ignored = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+}
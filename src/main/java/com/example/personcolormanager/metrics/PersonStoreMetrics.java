@@ -0,0 +1,61 @@
+package com.example.personcolormanager.metrics;
+
+import com.example.personcolormanager.controller.PersonResponseCache;
+import com.example.personcolormanager.service.CachingPersonService;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Metrics read from counters the components keep anyway, so nothing is added to the request path:
+// color lookup misses, the CSV startup load and store size, the person caches and the response cache
+@Component
+public class PersonStoreMetrics implements MeterBinder {
+    private final ColorMappingUtil colorMappingUtil;
+    private final ObjectProvider<CsvPersonServiceImpl> csvPersonService;
+    private final ObjectProvider<CachingPersonService> cachingPersonService;
+    private final ObjectProvider<PersonResponseCache> responseCache;
+
+    public PersonStoreMetrics(ColorMappingUtil colorMappingUtil, ObjectProvider<CsvPersonServiceImpl> csvPersonService,
+                              ObjectProvider<CachingPersonService> cachingPersonService,
+                              ObjectProvider<PersonResponseCache> responseCache) {
+        this.colorMappingUtil = colorMappingUtil;
+        this.csvPersonService = csvPersonService;
+        this.cachingPersonService = cachingPersonService;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("colors.lookup.misses", colorMappingUtil, ColorMappingUtil::getLookupMisses)
+                .description("Color names that could not be resolved to a color id")
+                .register(registry);
+
+        csvPersonService.ifAvailable(service -> {
+            TimeGauge.builder("person.store.load.duration", service, TimeUnit.NANOSECONDS, s -> s.getLoadDuration().toNanos())
+                    .description("Time the startup load of the CSV file took")
+                    .register(registry);
+            Gauge.builder("person.store.load.rows", service, CsvPersonServiceImpl::getLoadedRows)
+                    .description("Persons loaded from the CSV file on startup")
+                    .register(registry);
+            Gauge.builder("person.store.load.malformed", service, CsvPersonServiceImpl::getMalformedRows)
+                    .description("Malformed rows skipped while loading the CSV file")
+                    .register(registry);
+            Gauge.builder("person.store.size", service, CsvPersonServiceImpl::getStoreSize)
+                    .description("Persons held in memory")
+                    .register(registry);
+        });
+
+        cachingPersonService.ifAvailable(service -> service.getCaches()
+                .forEach((name, cache) -> CaffeineCacheMetrics.monitor(registry, cache, "person." + name)));
+        responseCache.ifAvailable(cache -> CaffeineCacheMetrics.monitor(registry, cache.getCache(), "person.responses"));
+    }
+}
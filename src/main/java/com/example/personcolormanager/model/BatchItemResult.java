@@ -0,0 +1,30 @@
+package com.example.personcolormanager.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    // Position of the item in the request
+    private int index;
+
+    // HTTP status the item would have received as a single request
+    private int status;
+
+    private Person person;
+
+    private String error;
+
+    public static BatchItemResult created(int index, Person person) {
+        return new BatchItemResult(index, HttpStatus.CREATED.value(), person, null);
+    }
+
+    public static BatchItemResult rejected(int index, HttpStatus status, String error) {
+        return new BatchItemResult(index, status.value(), null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.personcolormanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ColorCount {
+
+    private int colorId;
+    private String color;
+    private long count;
+}
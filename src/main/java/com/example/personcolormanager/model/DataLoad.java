@@ -0,0 +1,87 @@
+package com.example.personcolormanager.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one of the startup loads (colors, persons); updated by the loading thread while health checks read it
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DataLoad {
+    public enum Status { LOADING, READY, FAILED }
+
+    private final String name;
+    private final Instant startedAt;
+    private volatile Status status = Status.LOADING;
+    private volatile String phase;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile long bytesTotal;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+
+    public DataLoad(String name) {
+        this.name = name;
+        this.startedAt = Instant.now();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    // Records (persons, colors) loaded so far
+    public long getRecords() {
+        return records.get();
+    }
+
+    // Share of the bytes read in percent, or null while the total is unknown
+    public Integer getPercent() {
+        long total = bytesTotal;
+        return total > 0 ? (int) Math.min(100, bytesRead.get() * 100 / total) : null;
+    }
+
+    // What the load is doing right now, e.g. "parsing CSV"
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public void setBytesTotal(long bytes) {
+        bytesTotal = bytes;
+    }
+
+    // May be called from several parsing threads at once
+    public void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    public void setRecords(long count) {
+        records.set(count);
+    }
+
+    @JsonIgnore
+    public boolean isReady() {
+        return status == Status.READY;
+    }
+
+    // Mark the load finished unless it already failed
+    public synchronized void complete() {
+        if (status == Status.LOADING) {
+            phase = null;
+            finishedAt = Instant.now();
+            status = Status.READY;
+        }
+    }
+
+    // Mark the load failed; only the first error is kept
+    public synchronized void fail(String message) {
+        if (status == Status.LOADING) {
+            error = message;
+            finishedAt = Instant.now();
+            status = Status.FAILED;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.personcolormanager.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of a CSV upload that is imported in the background; updated by the import while clients poll it
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportJob {
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String fileName;
+    private final long fileSize;
+    private final Instant startedAt;
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile List<String> malformedSamples = List.of();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsAccepted = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    public ImportJob(String id, String fileName, long fileSize) {
+        this.id = id;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.startedAt = Instant.now();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    // Rows stored so far
+    public long getRowsAccepted() {
+        return rowsAccepted.get();
+    }
+
+    // Rows that could not be parsed or stored so far
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public void setBytesRead(long bytes) {
+        bytesRead.set(bytes);
+    }
+
+    public void setMalformedSamples(List<String> samples) {
+        malformedSamples = List.copyOf(samples);
+    }
+
+    public void addAccepted(long rows) {
+        rowsAccepted.addAndGet(rows);
+    }
+
+    public void addRejected(long rows) {
+        rowsRejected.addAndGet(rows);
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    // Mark the job completed unless it already failed
+    public synchronized void complete() {
+        if (status == Status.RUNNING) {
+            finishedAt = Instant.now();
+            status = Status.COMPLETED;
+        }
+    }
+
+    // Mark the job failed; only the first error is kept
+    public synchronized void fail(String message) {
+        if (status == Status.RUNNING) {
+            error = message;
+            finishedAt = Instant.now();
+            status = Status.FAILED;
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package com.example.personcolormanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import com.example.personcolormanager.util.ZipCodes;
 import lombok.*;
 
+import java.util.Locale;
+
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "persons")
+@Table(name = "persons", indexes = {
+        @Index(name = "idx_persons_color_id", columnList = "colorId"),
+        @Index(name = "idx_persons_name_key", columnList = "nameKey, id"),
+        @Index(name = "idx_persons_last_name_key", columnList = "lastNameKey, id"),
+        @Index(name = "idx_persons_zip_code_key", columnList = "zipCodeKey, id"),
+        @Index(name = "idx_persons_city_key", columnList = "cityKey, id"),
+        @Index(name = "idx_persons_zip_number", columnList = "zipNumber, id"),
+        @Index(name = "idx_persons_color_id_zip_number", columnList = "colorId, zipNumber")})
 public class Person {
 
     @JsonProperty("id")
     @Id()
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence ids let Hibernate batch inserts, which IDENTITY columns prevent
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private long id;
 
@@ -42,7 +54,56 @@ public class Person {
     @Column(name = "colorId")
     private int colorId;
 
+    // Lower-case copies of the searchable fields, kept up to date on every write. H2 cannot index
+    // lower(name), so case-insensitive prefix searches use these indexed columns instead.
+    @JsonIgnore
+    @Column(name = "nameKey")
+    private String nameKey;
+
+    @JsonIgnore
+    @Column(name = "lastNameKey")
+    private String lastNameKey;
+
+    @JsonIgnore
+    @Column(name = "zipCodeKey")
+    private String zipCodeKey;
+
+    @JsonIgnore
+    @Column(name = "cityKey")
+    private String cityKey;
+
+    // The zip code as a number for range queries, null if it is not made of digits
+    @JsonIgnore
+    @Column(name = "zipNumber")
+    private Integer zipNumber;
+
+    public Person(long id, String name, String lastName, String zipCode, String city, String color, int colorId) {
+        this.id = id;
+        this.name = name;
+        this.lastName = lastName;
+        this.zipCode = zipCode;
+        this.city = city;
+        this.color = color;
+        this.colorId = colorId;
+    }
+
     public Person(int id, String name, String colorName) {
     }
 
+    @PrePersist
+    @PreUpdate
+    void updateDerivedColumns() {
+        nameKey = searchKey(name);
+        lastNameKey = searchKey(lastName);
+        zipCodeKey = searchKey(zipCode);
+        cityKey = searchKey(city);
+        int zip = ZipCodes.parse(zipCode);
+        zipNumber = zip != ZipCodes.NO_ZIP ? zip : null;
+    }
+
+    // Form of a field value or prefix that the search key columns are compared with
+    public static String searchKey(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
 }
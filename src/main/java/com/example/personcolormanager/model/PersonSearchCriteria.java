@@ -0,0 +1,24 @@
+package com.example.personcolormanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Case-insensitive prefixes a person must match; null or empty prefixes match everything
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonSearchCriteria {
+    private String name;
+    private String lastName;
+    private String city;
+    private String zipCode;
+
+    public boolean isEmpty() {
+        return isBlank(name) && isBlank(lastName) && isBlank(city) && isBlank(zipCode);
+    }
+
+    private static boolean isBlank(String prefix) {
+        return prefix == null || prefix.isEmpty();
+    }
+}
@@ -1,12 +1,35 @@
 package com.example.personcolormanager.repository;
 
 import com.example.personcolormanager.model.Person;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
-    List<Person> findByColor(String color);
+public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person> {
+    // Color queries go through the indexed color id column
+    List<Person> findByColorId(int colorId);
+
+    long countByColorId(int colorId);
+
+    // Number of persons per color id, as [colorId, count] rows
+    @Query("select p.colorId, count(p) from Person p group by p.colorId")
+    List<Object[]> countGroupedByColorId();
+
+    // Keyset pagination over the primary key
+    List<Person> findByIdGreaterThanOrderByIdAsc(long afterId, Limit limit);
+
+    // Cursor over all persons; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p from Person p order by p.id")
+    Stream<Person> streamAllOrderById();
 }
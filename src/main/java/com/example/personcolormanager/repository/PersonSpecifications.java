@@ -0,0 +1,68 @@
+package com.example.personcolormanager.repository;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Query conditions for PersonRepository's specification queries
+public final class PersonSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private PersonSpecifications() {
+    }
+
+    // Persons after the given id whose fields start with the criteria's prefixes, ignoring case.
+    // Only the given prefixes become conditions, so each one can use the index on its key column.
+    public static Specification<Person> matchesPrefixes(PersonSearchCriteria criteria, long afterId) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            // Keep the id condition away from the primary key: H2 has no statistics for bound values and
+            // would rather walk all persons in id order than use the key indexes of the prefixes
+            predicates.add(builder.greaterThan(builder.sum(root.get("id"), 0L), afterId));
+            addPrefix(predicates, builder, root.get("nameKey"), criteria.getName());
+            addPrefix(predicates, builder, root.get("lastNameKey"), criteria.getLastName());
+            addPrefix(predicates, builder, root.get("zipCodeKey"), criteria.getZipCode());
+            addPrefix(predicates, builder, root.get("cityKey"), criteria.getCity());
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Persons after the given id with a numeric zip code in [fromZip, toZip] and, unless colorId is null,
+    // the given color id
+    public static Specification<Person> inZipRange(int fromZip, int toZip, Integer colorId, long afterId) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(builder.greaterThan(builder.sum(root.get("id"), 0L), afterId));
+            predicates.add(builder.between(root.get("zipNumber"), fromZip, toZip));
+            if (colorId != null) {
+                predicates.add(builder.equal(root.get("colorId"), colorId));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static void addPrefix(List<Predicate> predicates, CriteriaBuilder builder,
+                                  Path<String> key, String prefix) {
+        if (prefix != null && !prefix.isEmpty()) {
+            predicates.add(builder.like(key, escapeLike(Person.searchKey(prefix)) + "%", LIKE_ESCAPE));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
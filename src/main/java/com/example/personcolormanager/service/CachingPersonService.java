@@ -0,0 +1,151 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Read-through cache in front of another PersonService.
+// Id and color lookups are cached in size-bounded W-TinyLFU caches with a TTL; a successful add
+// invalidates exactly the id and color entries it affects. Listings are passed through uncached.
+// Color lists are weighed by their length, so that cache holds at most maximumSize persons in all.
+public class CachingPersonService implements PersonService {
+    private final PersonService delegate;
+    private final ColorMappingUtil colorMappingUtil;
+
+    // Misses are cached as empty, so repeated lookups of unknown ids do not reach the delegate either
+    private final Cache<Long, Optional<Person>> personsById;
+    private final Cache<Integer, List<Person>> personsByColorId;
+    private final Cache<Integer, Long> countsByColorId;
+
+    public CachingPersonService(PersonService delegate, ColorMappingUtil colorMappingUtil, long maximumSize, Duration timeToLive) {
+        this.delegate = delegate;
+        this.colorMappingUtil = colorMappingUtil;
+        this.personsById = newCache(maximumSize, timeToLive);
+        // A list longer than maximumSize persons is evicted right after loading instead of pushing out the rest
+        this.personsByColorId = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((Integer colorId, List<Person> persons) -> Math.max(1, persons.size()))
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.countsByColorId = newCache(maximumSize, timeToLive);
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, Duration timeToLive) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<Person> getPersons() {
+        return delegate.getPersons();
+    }
+
+    @Override
+    public List<Person> getPersonsPage(long afterId, int limit) {
+        return delegate.getPersonsPage(afterId, limit);
+    }
+
+    // Search results depend on too many parameters to be worth caching
+    @Override
+    public List<Person> searchPersons(PersonSearchCriteria criteria, long afterId, int limit) {
+        return delegate.searchPersons(criteria, afterId, limit);
+    }
+
+    @Override
+    public List<Person> getPersonsByZipRange(int fromZip, int toZip, String color, long afterId, int limit) {
+        return delegate.getPersonsByZipRange(fromZip, toZip, color, afterId, limit);
+    }
+
+    @Override
+    public void streamPersons(Consumer<Person> consumer) {
+        delegate.streamPersons(consumer);
+    }
+
+    @Override
+    public Person getPersonById(long id) {
+        return personsById.get(id, key -> Optional.ofNullable(delegate.getPersonById(key))).orElse(null);
+    }
+
+    // Entries are keyed by color id, so all spellings of a color share one entry
+    @Override
+    public List<Person> getPersonByColor(String color) {
+        Integer colorId = color != null ? colorMappingUtil.getColorIdByColorName(color) : null;
+        if (colorId == null) {
+            return Collections.emptyList();
+        }
+        return personsByColorId.get(colorId, key -> List.copyOf(delegate.getPersonByColor(color)));
+    }
+
+    @Override
+    public long countPersonsByColor(String color) {
+        Integer colorId = color != null ? colorMappingUtil.getColorIdByColorName(color) : null;
+        if (colorId == null) {
+            return 0;
+        }
+        return countsByColorId.get(colorId, key -> delegate.countPersonsByColor(color));
+    }
+
+    @Override
+    public Person addPerson(Person person) {
+        Person savedPerson = delegate.addPerson(person);
+        if (savedPerson != null) {
+            invalidate(savedPerson);
+        }
+        return savedPerson;
+    }
+
+    @Override
+    public List<Person> addPersons(List<Person> persons) {
+        List<Person> savedPersons = delegate.addPersons(persons);
+        for (Person savedPerson : savedPersons) {
+            if (savedPerson != null) {
+                invalidate(savedPerson);
+            }
+        }
+        return savedPersons;
+    }
+
+    @Override
+    public long getDataVersion() {
+        return delegate.getDataVersion();
+    }
+
+    private void invalidate(Person person) {
+        personsById.invalidate(person.getId());
+        personsByColorId.invalidate(person.getColorId());
+        countsByColorId.invalidate(person.getColorId());
+    }
+
+    // Get hit, miss and eviction counts per query type
+    public Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("byId", personsById.stats());
+        stats.put("byColor", personsByColorId.stats());
+        stats.put("countByColor", countsByColorId.stats());
+        return stats;
+    }
+
+    // Get the caches per query type, e.g. to bind them to metrics
+    public Map<String, Cache<?, ?>> getCaches() {
+        Map<String, Cache<?, ?>> caches = new LinkedHashMap<>();
+        caches.put("byId", personsById);
+        caches.put("byColor", personsByColorId);
+        caches.put("countByColor", countsByColorId);
+        return caches;
+    }
+}
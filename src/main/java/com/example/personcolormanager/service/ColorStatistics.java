@@ -0,0 +1,41 @@
+package com.example.personcolormanager.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Number of persons per color id, seeded from the initial load and kept up to date by addPerson.
+// LongAdder keeps concurrent writers from contending on one counter; reads are O(number of colors).
+@Component
+public class ColorStatistics {
+    private final ConcurrentHashMap<Integer, LongAdder> countsByColorId = new ConcurrentHashMap<>();
+
+    // Replace all counters with the given counts
+    public void seed(Map<Integer, Long> counts) {
+        countsByColorId.clear();
+        counts.forEach((colorId, count) -> counter(colorId).add(count));
+    }
+
+    public void increment(int colorId) {
+        counter(colorId).increment();
+    }
+
+    public long getCount(int colorId) {
+        LongAdder counter = countsByColorId.get(colorId);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    // Get the current count per color id, ordered by color id
+    public Map<Integer, Long> getCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        countsByColorId.forEach((colorId, counter) -> counts.put(colorId, counter.sum()));
+        return counts;
+    }
+
+    private LongAdder counter(int colorId) {
+        return countsByColorId.computeIfAbsent(colorId, id -> new LongAdder());
+    }
+}
@@ -1,84 +1,335 @@
 package com.example.personcolormanager.service;
 
+import com.example.personcolormanager.ingest.CsvIngestionEngine;
+import com.example.personcolormanager.ingest.CsvRowParser;
+import com.example.personcolormanager.ingest.IngestionResult;
+import com.example.personcolormanager.ingest.PersonSnapshotFile;
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.journal.PersonAppendLog;
+import com.example.personcolormanager.model.DataLoad;
 import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import com.example.personcolormanager.store.PartitionedPersonStore;
+import com.example.personcolormanager.store.PersonStore;
+import com.example.personcolormanager.store.PersonTable;
 import com.example.personcolormanager.util.ColorMappingUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Service
+@Slf4j
 @ConditionalOnProperty(value = "database.enabled", havingValue = "false")
-public class CsvPersonServiceImpl implements PersonService {
+public class CsvPersonServiceImpl implements PersonService, ApplicationEventPublisherAware {
     private final Resource csvResource;
     private final ColorMappingUtil colorMappingUtil;
-    private List<Person> persons;
+    private final CsvIngestionEngine ingestionEngine;
+    private final ColorStatistics colorStatistics;
+    private final PersonTable personStore;
+    private final DurabilityMode durabilityMode;
+    // Opened once the persons are loaded; until then new persons are not accepted
+    private volatile PersonAppendLog appendLog;
+    private final AtomicLong dataVersion = new AtomicLong();
+    // Set by Spring; without one, added persons are not announced
+    private ApplicationEventPublisher eventPublisher;
 
+    // Binary snapshot next to the CSV file, or null if snapshots are disabled
+    private final Path snapshotFile;
+    private volatile Thread snapshotWriter;
+    // Number of persons in the snapshot on disk, -1 if there is no usable snapshot
+    private volatile int snapshotPersons = -1;
+
+    // Outcome of the startup load, exposed as metrics
+    // Set once the persons were read from the snapshot or CSV file; only then does the store mirror the file
+    private volatile boolean loaded;
+    private volatile int loadedRows;
+    private volatile long malformedRows;
+    private volatile Duration loadDuration = Duration.ZERO;
+
+    public CsvPersonServiceImpl(Resource csvResource, ColorMappingUtil colorMappingUtil, CsvIngestionEngine ingestionEngine,
+                                ColorStatistics colorStatistics, DurabilityMode durabilityMode) {
+        this(csvResource, colorMappingUtil, ingestionEngine, colorStatistics, durabilityMode, false);
+    }
+
+    public CsvPersonServiceImpl(Resource csvResource, ColorMappingUtil colorMappingUtil, CsvIngestionEngine ingestionEngine,
+                                ColorStatistics colorStatistics, DurabilityMode durabilityMode, boolean snapshotEnabled) {
+        this(csvResource, colorMappingUtil, ingestionEngine, colorStatistics, durabilityMode, snapshotEnabled, 1);
+    }
+
+    public CsvPersonServiceImpl(Resource csvResource, ColorMappingUtil colorMappingUtil, CsvIngestionEngine ingestionEngine,
+                                ColorStatistics colorStatistics, DurabilityMode durabilityMode, boolean snapshotEnabled,
+                                int partitions) {
+        this(csvResource, colorMappingUtil, ingestionEngine, colorStatistics, durabilityMode, snapshotEnabled, partitions, null);
+    }
+
+    // Without a DataLoadService the persons are loaded before the constructor returns
     @Autowired
-    public CsvPersonServiceImpl(@Value("classpath:sample-input.csv") Resource csvResource, ColorMappingUtil colorMappingUtil) {
+    public CsvPersonServiceImpl(@Value("classpath:sample-input.csv") Resource csvResource, ColorMappingUtil colorMappingUtil,
+                                CsvIngestionEngine ingestionEngine, ColorStatistics colorStatistics,
+                                @Value("${csv.append.durability:GROUP_FSYNC}") DurabilityMode durabilityMode,
+                                @Value("${csv.snapshot.enabled:true}") boolean snapshotEnabled,
+                                @Value("${csv.store.partitions:1}") int partitions,
+                                DataLoadService dataLoadService) {
         this.csvResource = csvResource;
         this.colorMappingUtil = colorMappingUtil;
-        this.persons = loadPersonsFromCsv(); // Load persons from CSV file on initialization
-    }
-
-    // Load persons from CSV file
-    private List<Person> loadPersonsFromCsv() {
-        List<Person> loadedPersons = new ArrayList<>();
-        Map<Integer, String> colorMappings = colorMappingUtil.getColorMapping(); // Initialize color mappings
-        try (InputStream inputStream = csvResource.getInputStream();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            int id = 1;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length >= 4) {
-                    // Extract zip code and city from CSV data
-                    String[] zipCity = data[2].trim().split(" ");
-                    String zipCode = zipCity[0];
-                    String city = "";
-                    if (zipCity.length > 1) {
-                        city = String.join(" ", Arrays.copyOfRange(zipCity, 1, zipCity.length));
-                    }
-                    String colorIdStr = data[3].trim();
-                    int colorId;
-                    if (colorIdStr.contains(" ")) {
-                        colorIdStr = colorIdStr.substring(0, colorIdStr.indexOf(" "));
-                    }
-                    try {
-                        // Parse the color id string to integer
-                        colorId = Integer.parseInt(colorIdStr);
-                    } catch (NumberFormatException e) {
-                        // Handle the case when color id is not a valid integer
-                        System.err.println("Invalid color id format: " + colorIdStr);
-                        // You can choose to skip this line or handle it differently based on your requirement
-                        continue; // Skip this line and continue with the next line
-                    }
-                    String colorName = colorMappings.getOrDefault(colorId, "");
-                    // Create Person object and add to the list
-                    loadedPersons.add(new Person(id++, data[1].trim(), data[0].trim(), zipCode, city, colorName, colorId));
-                }
+        this.ingestionEngine = ingestionEngine;
+        this.colorStatistics = colorStatistics;
+        this.durabilityMode = durabilityMode;
+        this.snapshotFile = snapshotEnabled ? snapshotFileFor(csvResource) : null;
+        // Color names are resolved when persons are read
+        this.personStore = partitions > 1
+                ? new PartitionedPersonStore(partitions, colorMappingUtil::getColorNameByColorId)
+                : new PersonStore(colorMappingUtil::getColorNameByColorId);
+        if (dataLoadService != null) {
+            dataLoadService.start("persons", this::load);
+        } else {
+            try {
+                load(new DataLoad("persons"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading the CSV file for persons: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Load the persons into the store and open the file for appending; a file that cannot be read fails the load
+    private void load(DataLoad progress) throws IOException {
+        progress.setPhase("recovering " + csvResource.getFilename());
+        recoverTornLastLine(); // Repair a line torn by a crash before reading the file
+        List<Person> loadedPersons = loadPersons(progress); // Load persons from the snapshot or the CSV file
+        progress.setPhase("indexing");
+        this.personStore.addAll(loadedPersons); // Encode the loaded persons into columns and index them by color id
+        seedColorStatistics(loadedPersons);
+        progress.setRecords(loadedPersons.size());
+        this.appendLog = openAppendLog(durabilityMode);
+        loaded = true;
+    }
+
+    // Seed the color statistics with the loaded persons
+    private void seedColorStatistics(List<Person> loadedPersons) {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Person person : loadedPersons) {
+            counts.merge(person.getColorId(), 1L, Long::sum);
+        }
+        colorStatistics.seed(counts);
+    }
+
+    // Terminate or truncate a last line that was not completely written
+    private void recoverTornLastLine() {
+        if (!csvResource.isFile()) {
+            return;
+        }
+        try {
+            CsvRowParser parser = new CsvRowParser();
+            PersonAppendLog.recover(csvResource.getFile().toPath(), line -> {
+                ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+                return parser.parse(buffer, 0, buffer.limit()) != null;
+            });
+        } catch (IOException e) {
+            log.error("Error recovering the CSV file for persons: {}", e.getMessage(), e);
+        }
+    }
+
+    // Open the long-lived append channel that addPerson writes through
+    private PersonAppendLog openAppendLog(DurabilityMode durabilityMode) {
+        if (!csvResource.isFile()) {
+            log.warn("{} is not a writable file, new persons cannot be stored", csvResource.getDescription());
+            return null;
+        }
+        try {
+            return new PersonAppendLog(csvResource.getFile().toPath(), durabilityMode);
+        } catch (IOException e) {
+            log.error("Error opening the CSV file for appending: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // Flush pending appends and release the file on shutdown
+    @PreDestroy
+    public void close() throws IOException {
+        if (appendLog != null) {
+            appendLog.close();
+        }
+        writeFinalSnapshot();
+    }
+
+    private static Path snapshotFileFor(Resource csvResource) {
+        try {
+            return csvResource.isFile() ? PersonSnapshotFile.forCsvFile(csvResource.getFile().toPath()) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Read the snapshot if it was taken from the CSV file as it is now
+    private IngestionResult readSnapshot() {
+        if (snapshotFile == null) {
+            return null;
+        }
+        try {
+            IngestionResult result = PersonSnapshotFile.read(snapshotFile, csvResource.contentLength(), csvResource.lastModified());
+            if (result != null) {
+                snapshotPersons = result.getPersons().size();
             }
+            return result;
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Ignoring snapshot {}: {}", snapshotFile, e.getMessage());
+            return null;
         }
-        return loadedPersons;
+    }
+
+    // Write the snapshot of a completed CSV load in the background, so startup does not wait for it
+    private void writeSnapshotInBackground(List<Person> persons, long malformedRows, long csvLength, long csvLastModified) {
+        snapshotWriter = new Thread(() -> writeSnapshot(persons, malformedRows, csvLength, csvLastModified), "person-snapshot-writer");
+        snapshotWriter.setDaemon(true);
+        snapshotWriter.start();
+    }
+
+    // Bring the snapshot up to date with persons added since startup, once the CSV file is final
+    private void writeFinalSnapshot() throws IOException {
+        if (snapshotFile == null || !loaded) {
+            // A store that is still loading, or whose load failed, does not hold the file's persons. A snapshot
+            // of it would be stamped with the CSV file's length and mtime and replace the file on every start.
+            return;
+        }
+        if (snapshotWriter != null) {
+            try {
+                snapshotWriter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (snapshotPersons != personStore.size()) {
+            writeSnapshot(personStore.getAll(), malformedRows, csvResource.contentLength(), csvResource.lastModified());
+        }
+    }
+
+    private void writeSnapshot(List<Person> persons, long malformedRows, long csvLength, long csvLastModified) {
+        long start = System.nanoTime();
+        try {
+            PersonSnapshotFile.write(snapshotFile, csvLength, csvLastModified, persons, malformedRows);
+            snapshotPersons = persons.size();
+            log.info("Wrote snapshot of {} persons to {} in {} ms", persons.size(), snapshotFile.getFileName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            log.error("Error writing the snapshot {}: {}", snapshotFile, e.getMessage(), e);
+        }
+    }
+
+    // Load persons from the snapshot if it is up to date, otherwise parse the CSV file
+    private List<Person> loadPersons(DataLoad progress) throws IOException {
+        long start = System.nanoTime();
+        try {
+            progress.setPhase("reading snapshot");
+            IngestionResult result = readSnapshot();
+            if (result != null) {
+                progress.setBytesTotal(result.getBytesRead());
+                progress.addBytesRead(result.getBytesRead());
+                log.info("Loaded {} persons ({} bytes) from {} in {} ms", result.getPersons().size(), result.getBytesRead(),
+                        snapshotFile.getFileName(), TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()));
+            } else {
+                result = loadPersonsFromCsv(progress);
+            }
+            loadedRows = result.getPersons().size();
+            malformedRows = result.getMalformedRows();
+            return result.getPersons();
+        } finally {
+            loadDuration = Duration.ofNanos(System.nanoTime() - start);
+        }
+    }
+
+    // Parse the CSV file and schedule a snapshot of the result
+    private IngestionResult loadPersonsFromCsv(DataLoad progress) throws IOException {
+        long csvLength = snapshotFile != null ? csvResource.contentLength() : 0;
+        long csvLastModified = snapshotFile != null ? csvResource.lastModified() : 0;
+        progress.setPhase("parsing " + csvResource.getFilename());
+        progress.setBytesTotal(csvResource.contentLength());
+        IngestionResult result = ingestionEngine.ingest(csvResource, progress::addBytesRead);
+        if (result.getMalformedRows() > 0) {
+            log.warn("Skipped {} malformed rows in {}, e.g. {}", result.getMalformedRows(),
+                    csvResource.getFilename(), result.getMalformedSamples());
+        }
+        log.info("Loaded {} persons ({} bytes) from {} in {} ms", result.getPersons().size(), result.getBytesRead(),
+                csvResource.getFilename(), TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()));
+        if (snapshotFile != null) {
+            writeSnapshotInBackground(result.getPersons(), result.getMalformedRows(), csvLength, csvLastModified);
+        }
+        return result;
+    }
+
+    public int getLoadedRows() {
+        return loadedRows;
+    }
+
+    public long getMalformedRows() {
+        return malformedRows;
+    }
+
+    // Time the startup load took, including color name resolution
+    public Duration getLoadDuration() {
+        return loadDuration;
+    }
+
+    // Number of persons currently held in memory
+    public int getStoreSize() {
+        return personStore.size();
     }
 
     @Override
     public List<Person> getPersons() {
-        return persons;
+        return personStore.getAll();
+    }
+
+    @Override
+    public List<Person> getPersonsPage(long afterId, int limit) {
+        return personStore.getPage(afterId, limit);
+    }
+
+    @Override
+    public List<Person> searchPersons(PersonSearchCriteria criteria, long afterId, int limit) {
+        return personStore.search(criteria, afterId, limit);
+    }
+
+    @Override
+    public List<Person> getPersonsByZipRange(int fromZip, int toZip, String color, long afterId, int limit) {
+        if (color == null) {
+            return personStore.getByZipRange(fromZip, toZip, PersonStore.ANY_COLOR, afterId, limit);
+        }
+        Integer colorId = colorMappingUtil.getColorIdByColorName(color);
+        if (colorId == null) {
+            return Collections.emptyList();
+        }
+        // The zip code index is intersected with the color id posting list inside the store
+        return personStore.getByZipRange(fromZip, toZip, colorId, afterId, limit);
+    }
+
+    @Override
+    public void streamPersons(Consumer<Person> consumer) {
+        personStore.forEach(consumer);
     }
 
     @Override
     public Person getPersonById(long id) {
-        return persons.stream()
-                .filter(person -> person.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return personStore.getById(id);
     }
 
     @Override
@@ -87,55 +338,126 @@ public class CsvPersonServiceImpl implements PersonService {
             return Collections.emptyList();
         }
 
-        return persons.stream()
-                .filter(person -> {
-                    String personColor = person.getColor();
-                    return personColor != null && personColor.equalsIgnoreCase(color);
-                })
-                .toList();
+        // Resolve the color name once and use the color id posting list instead of comparing names
+        Integer colorId = colorMappingUtil.getColorIdByColorName(color);
+        if (colorId == null) {
+            return Collections.emptyList();
+        }
+        return personStore.getByColorId(colorId);
+    }
 
+    @Override
+    public long countPersonsByColor(String color) {
+        Integer colorId = color != null ? colorMappingUtil.getColorIdByColorName(color) : null;
+        return colorId != null ? personStore.countByColorId(colorId) : 0;
     }
 
     @Override
     public Person addPerson(Person person) {
-        try (FileWriter writer = new FileWriter(csvResource.getFile(), true);
-             BufferedWriter bufferedWriter = new BufferedWriter(writer)) {
-
-            // Determining the next available identifier
-            long nextId = persons.stream()
-                    .mapToLong(Person::getId)
-                    .max()
-                    .orElse(0) + 1;
-
-            // Assigning the identifier to the new person
-            person.setId(nextId);
-
-            // If colorId is not provided, try to determine it from colorName
-            if (person.getColorId() == 0 && !person.getColor().isEmpty()) {
-                Integer colorId = colorMappingUtil.getColorIdByColorName(person.getColor());
-                if (colorId != null) {
-                    person.setColorId(colorId);
-                } else {
-                    // Handle the case when colorName is not found
-                    return null;
+        if (appendLog == null || !fitsCsvLine(person) || !resolveColorId(person)) {
+            return null;
+        }
+
+        // Ids are assigned in log order, so the file order matches the ids assigned on the next load
+        CompletableFuture<Void> written;
+        synchronized (appendLog) {
+            person.setId(personStore.nextId());
+            written = appendLog.append(toCsvLine(person), () -> store(person));
+        }
+
+        // The person becomes visible once its line has been written with the configured durability
+        return awaitWritten(person, written);
+    }
+
+    @Override
+    public List<Person> addPersons(List<Person> persons) {
+        List<Person> savedPersons = new ArrayList<>(Collections.nCopies(persons.size(), null));
+        if (appendLog == null) {
+            return savedPersons;
+        }
+
+        // Queue the whole batch under one lock so it lands in the same write groups
+        List<CompletableFuture<Void>> written = new ArrayList<>(persons.size());
+        synchronized (appendLog) {
+            for (Person person : persons) {
+                if (!fitsCsvLine(person) || !resolveColorId(person)) {
+                    written.add(null);
+                    continue;
                 }
+                person.setId(personStore.nextId());
+                written.add(appendLog.append(toCsvLine(person), () -> store(person)));
+            }
+        }
+        for (int i = 0; i < persons.size(); i++) {
+            if (written.get(i) != null) {
+                savedPersons.set(i, awaitWritten(persons.get(i), written.get(i)));
+            }
+        }
+        return savedPersons;
+    }
+
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Make a written person visible and count it
+    private void store(Person person) {
+        personStore.add(person);
+        colorStatistics.increment(person.getColorId());
+        dataVersion.incrementAndGet();
+        if (eventPublisher != null) {
+            // Announce the stored person, whose color name is the canonical one
+            eventPublisher.publishEvent(new PersonsAddedEvent(List.of(personStore.getById(person.getId()))));
+        }
+    }
+
+    // If colorId is not provided, try to determine it from colorName
+    private boolean resolveColorId(Person person) {
+        String color = person.getColor();
+        if (person.getColorId() == 0 && color != null && !color.isEmpty()) {
+            Integer colorId = colorMappingUtil.getColorIdByColorName(color);
+            if (colorId == null) {
+                // Handle the case when colorName is not found
+                return false;
             }
+            person.setColorId(colorId);
+        }
+        // Uploaded rows and batch items may carry only a color id; store persons of known colors only
+        return !colorMappingUtil.getColorNameByColorId(person.getColorId()).isEmpty();
+    }
 
-            // Adding the new person's data to the CSV file
-            bufferedWriter.write(person.getLastName() + "," +
-                    person.getName() + "," +
-                    person.getZipCode() + "" + person.getCity() + "," +
-                    person.getColorId() + "," +
-                    person.getId());
-            bufferedWriter.newLine();
-            bufferedWriter.flush();
-
-            // Adding the new person to the list of persons
-            persons.add(person);
+    private Person awaitWritten(Person person, CompletableFuture<Void> written) {
+        try {
+            written.join();
             return person;
-        } catch (IOException e) {
-            e.printStackTrace();
+        } catch (CompletionException e) {
+            log.error("Error adding person {} to the CSV file: {}", person.getId(), e.getCause().getMessage());
             return null;
         }
     }
-}
\ No newline at end of file
+
+    // A comma or line break in a value would shift the columns or split the line when it is read back
+    private static boolean fitsCsvLine(Person person) {
+        return fitsCsvField(person.getLastName()) && fitsCsvField(person.getName())
+                && fitsCsvField(person.getZipCode()) && fitsCsvField(person.getCity());
+    }
+
+    private static boolean fitsCsvField(String value) {
+        return value == null || value.indexOf(',') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0;
+    }
+
+    // Format a person the way loadPersonsFromCsv reads it back, followed by the id that it keeps on load
+    private static String toCsvLine(Person person) {
+        return person.getLastName() + "," +
+                person.getName() + "," +
+                person.getZipCode() + " " + person.getCity() + "," +
+                person.getColorId() + "," +
+                person.getId();
+    }
+}
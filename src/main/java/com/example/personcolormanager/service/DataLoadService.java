@@ -0,0 +1,100 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.DataLoad;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the file loads of the beans (colors, persons) in the background, so the context and the web
+// server come up at once instead of after the slowest file. The application is ready once every
+// load has finished; until then the API answers 503 and the readiness probe reports OUT_OF_SERVICE.
+// With asynchronous loading turned off, loads run right away on the caller's thread as before.
+@Slf4j
+@Service
+public class DataLoadService {
+
+    // Loads one data set and reports its progress on the given DataLoad
+    @FunctionalInterface
+    public interface Loader {
+        void load(DataLoad load) throws Exception;
+    }
+
+    private final boolean async;
+    private final List<DataLoad> loads = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor;
+    // Cached, since every API request checks it
+    private volatile boolean ready = true;
+
+    @Autowired
+    public DataLoadService(@Value("${data.loading.async:true}") boolean async) {
+        this.async = async;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "data-load-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Start loading the named data set; a failed synchronous load is rethrown, so startup fails as it used to
+    public DataLoad start(String name, Loader loader) {
+        DataLoad load = new DataLoad(name);
+        synchronized (this) {
+            loads.add(load);
+            ready = false;
+        }
+        if (!async) {
+            run(load, loader);
+            if (load.getStatus() == DataLoad.Status.FAILED) {
+                throw new IllegalStateException("Loading " + name + " failed: " + load.getError());
+            }
+            return load;
+        }
+        executor.execute(() -> run(load, loader));
+        return load;
+    }
+
+    // Whether every load has finished successfully
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<DataLoad> getLoads() {
+        return List.copyOf(loads);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void run(DataLoad load, Loader loader) {
+        try {
+            loader.load(load);
+            load.complete();
+            log.info("Loaded {} ({} records) in {} ms", load.getName(), load.getRecords(),
+                    load.getFinishedAt().toEpochMilli() - load.getStartedAt().toEpochMilli());
+        } catch (Exception | Error e) {
+            // Errors such as OutOfMemoryError fail the load as well, instead of leaving it loading forever
+            log.error("Loading {} failed: {}", load.getName(), e.getMessage(), e);
+            load.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            synchronized (this) {
+                ready = loads.stream().allMatch(DataLoad::isReady);
+            }
+        }
+    }
+}
@@ -1,26 +1,66 @@
 package com.example.personcolormanager.service;
 
 import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
 import com.example.personcolormanager.repository.PersonRepository;
+import com.example.personcolormanager.repository.PersonSpecifications;
 import com.example.personcolormanager.util.ColorMappingUtil;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @ConditionalOnProperty(value = "database.enabled", havingValue = "true", matchIfMissing = true)
-public class DbPersonServiceImpl implements PersonService {
+public class DbPersonServiceImpl implements PersonService, ApplicationEventPublisherAware {
 
     private final PersonRepository personRepository;
     private final ColorMappingUtil colorMappingUtil;
+    private final EntityManager entityManager;
+    private final ColorStatistics colorStatistics;
+    private final int batchSize;
+    private final AtomicLong dataVersion = new AtomicLong();
+    // Set by Spring; without one, added persons are not announced
+    private ApplicationEventPublisher eventPublisher;
 
     // Constructor injection of dependencies
     @Autowired
-    public DbPersonServiceImpl(PersonRepository personRepository, ColorMappingUtil colorMappingUtil) {
+    public DbPersonServiceImpl(PersonRepository personRepository, ColorMappingUtil colorMappingUtil, EntityManager entityManager,
+                               ColorStatistics colorStatistics,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.personRepository = personRepository;
         this.colorMappingUtil = colorMappingUtil;
+        this.entityManager = entityManager;
+        this.colorStatistics = colorStatistics;
+        this.batchSize = batchSize;
+    }
+
+    // Seed the color statistics with the persons already in the database
+    @PostConstruct
+    public void seedColorStatistics() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Object[] row : personRepository.countGroupedByColorId()) {
+            counts.put((Integer) row[0], (Long) row[1]);
+        }
+        colorStatistics.seed(counts);
     }
 
     // Retrieve all persons from the database
@@ -29,16 +69,71 @@ public class DbPersonServiceImpl implements PersonService {
         return personRepository.findAll();
     }
 
+    // Retrieve one page of persons ordered by ID from the database
+    @Override
+    public List<Person> getPersonsPage(long afterId, int limit) {
+        return personRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    // Search through the indexed lower-case key columns, one page ordered by ID
+    @Override
+    public List<Person> searchPersons(PersonSearchCriteria criteria, long afterId, int limit) {
+        return personRepository.findBy(PersonSpecifications.matchesPrefixes(criteria, afterId),
+                query -> query.sortBy(Sort.by("id")).limit(limit).all());
+    }
+
+    // Range query on the indexed numeric zip code column, combined with the color id in one index when given
+    @Override
+    public List<Person> getPersonsByZipRange(int fromZip, int toZip, String color, long afterId, int limit) {
+        Integer colorId = null;
+        if (color != null) {
+            colorId = resolveColorId(color);
+            if (colorId == null) {
+                return Collections.emptyList();
+            }
+        }
+        return personRepository.findBy(PersonSpecifications.inZipRange(fromZip, toZip, colorId, afterId),
+                query -> query.sortBy(Sort.by("id")).limit(limit).all());
+    }
+
+    // Stream all persons from a database cursor, detaching each one so memory stays flat
+    @Override
+    @Transactional(readOnly = true)
+    public void streamPersons(Consumer<Person> consumer) {
+        try (Stream<Person> persons = personRepository.streamAllOrderById()) {
+            persons.forEach(person -> {
+                consumer.accept(person);
+                entityManager.detach(person);
+            });
+        }
+    }
+
     // Retrieve a person by their ID from the database
     @Override
     public Person getPersonById(long id) {
         return personRepository.findById(id).orElse(null);
     }
 
-    // Retrieve persons by their color from the database
+    // Retrieve persons by their color from the database, using the color id index
     @Override
     public List<Person> getPersonByColor(String color) {
-        return personRepository.findByColor(color);
+        Integer colorId = resolveColorId(color);
+        if (colorId == null) {
+            return Collections.emptyList();
+        }
+        return personRepository.findByColorId(colorId);
+    }
+
+    // Count persons by their color in the database
+    @Override
+    public long countPersonsByColor(String color) {
+        Integer colorId = resolveColorId(color);
+        return colorId != null ? personRepository.countByColorId(colorId) : 0;
+    }
+
+    // Resolve the color name once, so spelling and case differences do not matter
+    private Integer resolveColorId(String color) {
+        return color != null ? colorMappingUtil.getColorIdByColorName(color) : null;
     }
 
     // Add a new person to the database
@@ -52,6 +147,74 @@ public class DbPersonServiceImpl implements PersonService {
 
         // Save person to repository
         Person savedPerson = personRepository.save(person);
+        colorStatistics.increment(savedPerson.getColorId());
+        afterCommit(() -> {
+            dataVersion.incrementAndGet();
+            announce(List.of(savedPerson));
+        });
         return savedPerson;
     }
+
+    // Add many persons in one transaction using JDBC batch inserts; persons of unknown colors are
+    // not stored and get null as their result
+    @Override
+    @Transactional
+    public List<Person> addPersons(List<Person> persons) {
+        List<Person> savedPersons = new ArrayList<>(persons.size());
+        List<Person> storedPersons = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            String colorName = colorMappingUtil.getColorNameByColorId(person.getColorId());
+            if (colorName.isEmpty()) {
+                savedPersons.add(null);
+                continue;
+            }
+            person.setId(0); // Ids always come from the sequence
+            person.setColor(colorName);
+            entityManager.persist(person);
+            savedPersons.add(person);
+            storedPersons.add(person);
+
+            // Send the pending inserts as one batch and keep the persistence context small
+            if (storedPersons.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        afterCommit(() -> {
+            storedPersons.forEach(person -> colorStatistics.increment(person.getColorId()));
+            dataVersion.incrementAndGet();
+            announce(storedPersons);
+        });
+        return savedPersons;
+    }
+
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    private void announce(List<Person> savedPersons) {
+        if (eventPublisher != null && !savedPersons.isEmpty()) {
+            eventPublisher.publishEvent(new PersonsAddedEvent(List.copyOf(savedPersons)));
+        }
+    }
+
+    // Run the action once the current transaction has committed, or right away without a transaction
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
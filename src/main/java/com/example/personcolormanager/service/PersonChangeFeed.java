@@ -0,0 +1,119 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.Person;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Sequence of the persons added on either backend, kept in a ring buffer of the last capacity entries.
+// Writers only store a reference and signal the listeners, so they never wait for readers; readers keep
+// their own position and read at their own pace. A reader that falls more than capacity entries behind
+// finds its position overwritten and has to resynchronize, instead of holding memory for it.
+@Service
+public class PersonChangeFeed {
+    private final Entry[] ring;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    // Sequence of the newest entry; sequences start at 1 on every start
+    private long lastSequence;
+    // Part of every event id, so a sequence from an earlier run is never taken for one of this run
+    private final String instanceToken = Long.toString(System.currentTimeMillis(), 36);
+
+    @Autowired
+    public PersonChangeFeed(@Value("${person.feed.capacity:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Feed capacity must be positive: " + capacity);
+        }
+        this.ring = new Entry[capacity];
+    }
+
+    @EventListener
+    public void onPersonsAdded(PersonsAddedEvent event) {
+        synchronized (this) {
+            for (Person person : event.getPersons()) {
+                long sequence = ++lastSequence;
+                ring[(int) (sequence % ring.length)] = new Entry(sequence, person);
+            }
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    // Get up to max entries after the given sequence, oldest first; entries that were overwritten are skipped
+    public synchronized List<Entry> read(long afterSequence, int max) {
+        long from = Math.max(afterSequence + 1, oldestSequence());
+        int count = (int) Math.max(0, Math.min(max, lastSequence - from + 1));
+        List<Entry> entries = new ArrayList<>(count);
+        for (long sequence = from; sequence < from + count; sequence++) {
+            entries.add(ring[(int) (sequence % ring.length)]);
+        }
+        return entries;
+    }
+
+    // Sequence of the oldest entry still held
+    public synchronized long oldestSequence() {
+        return Math.max(1, lastSequence - ring.length + 1);
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    // A reader that continues after afterSequence misses entries, because they were overwritten or
+    // because the sequence comes from an earlier run
+    public synchronized boolean isGap(long afterSequence) {
+        return afterSequence < oldestSequence() - 1 || afterSequence > lastSequence;
+    }
+
+    // Event id of the entry with the given sequence, e.g. for the Last-Event-ID of server-sent events
+    public String eventId(long sequence) {
+        return instanceToken + "-" + sequence;
+    }
+
+    // Sequence of an event id of this run, or null if the id is malformed or comes from an earlier run
+    public Long parseEventId(String eventId) {
+        if (eventId == null) {
+            return null;
+        }
+        String prefix = instanceToken + "-";
+        String id = eventId.trim();
+        if (!id.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Run the listener after every write; it must not block, since it runs on the writer's thread
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    public static final class Entry {
+        private final long sequence;
+        private final Person person;
+
+        Entry(long sequence, Person person) {
+            this.sequence = sequence;
+            this.person = person;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Person getPerson() {
+            return person;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.ingest.CsvBatchReader;
+import com.example.personcolormanager.model.ImportJob;
+import com.example.personcolormanager.model.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Imports uploaded CSV files in the sample-input.csv format in the background.
+// Each job is a two-stage pipeline: a reader thread parses the file into batches of batchSize persons
+// and hands them to a writer thread, which stores them through PersonService.addPersons, one
+// transaction per batch in database mode. The hand-off queue holds at most queueCapacity batches,
+// so a reader that is faster than the database blocks instead of buffering the file in memory.
+@Slf4j
+@Service
+public class PersonImportService {
+    private static final List<Person> END_OF_INPUT = Collections.emptyList();
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final PersonService personService;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    @Autowired
+    public PersonImportService(PersonService personService,
+                               @Value("${person.import.batch-size:1000}") int batchSize,
+                               @Value("${person.import.queue-capacity:4}") int queueCapacity) {
+        this.personService = personService;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "person-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Start importing the CSV file; the file belongs to the job and is deleted once it is done
+    public ImportJob startImport(Path csvFile, String fileName) throws IOException {
+        removeFinishedJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileName, Files.size(csvFile));
+        jobs.put(job.getId(), job);
+        BlockingQueue<List<Person>> batches = new ArrayBlockingQueue<>(queueCapacity);
+        executor.execute(() -> read(job, csvFile, batches));
+        executor.execute(() -> write(job, batches));
+        return job;
+    }
+
+    // Get a job by id, or null if it does not exist or finished too long ago
+    public ImportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void read(ImportJob job, Path csvFile, BlockingQueue<List<Person>> batches) {
+        try (CsvBatchReader reader = new CsvBatchReader(Files.newInputStream(csvFile), batchSize)) {
+            long malformedRows = 0;
+            List<Person> batch;
+            do {
+                batch = reader.nextBatch();
+                job.setBytesRead(reader.getBytesRead());
+                job.addRejected(reader.getMalformedRows() - malformedRows);
+                job.setMalformedSamples(reader.getMalformedSamples());
+                malformedRows = reader.getMalformedRows();
+            } while (handOver(job, batches, batch.isEmpty() ? END_OF_INPUT : batch) && !batch.isEmpty());
+        } catch (IOException e) {
+            log.error("Reading the upload {} of import {} failed: {}", job.getFileName(), job.getId(), e.getMessage(), e);
+            job.fail("Reading the upload failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import was interrupted");
+        } finally {
+            deleteQuietly(csvFile);
+            if (job.isFinished()) {
+                // Wake up a writer waiting for input; a writer with input left notices the failure itself
+                batches.offer(END_OF_INPUT);
+            }
+        }
+    }
+
+    // Wait for room in the queue, giving up when the writer has stopped
+    private boolean handOver(ImportJob job, BlockingQueue<List<Person>> batches, List<Person> batch) throws InterruptedException {
+        while (!job.isFinished()) {
+            if (batches.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(ImportJob job, BlockingQueue<List<Person>> batches) {
+        try {
+            List<Person> batch;
+            while ((batch = batches.take()) != END_OF_INPUT && !job.isFinished()) {
+                List<Person> savedPersons = personService.addPersons(batch);
+                long saved = savedPersons.stream().filter(Objects::nonNull).count();
+                job.addAccepted(saved);
+                job.addRejected(batch.size() - saved);
+            }
+            job.complete();
+            log.info("Import {} of {} finished as {}: {} rows accepted, {} rejected", job.getId(), job.getFileName(),
+                    job.getStatus(), job.getRowsAccepted(), job.getRowsRejected());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import was interrupted");
+        } catch (RuntimeException e) {
+            log.error("Storing persons of import {} failed: {}", job.getId(), e.getMessage(), e);
+            job.fail("Storing persons failed: " + e.getMessage());
+        }
+    }
+
+    private void removeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete upload {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,39 @@
 package com.example.personcolormanager.service;
 
 import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PersonService {
     List<Person> getPersons();
 
+    // Get up to limit persons with an id greater than afterId, ordered by id
+    List<Person> getPersonsPage(long afterId, int limit);
+
+    // Get up to limit persons with an id greater than afterId that match all prefixes of the criteria, ordered by id
+    List<Person> searchPersons(PersonSearchCriteria criteria, long afterId, int limit);
+
+    // Get up to limit persons with an id greater than afterId and a numeric zip code between fromZip and toZip
+    // inclusive, ordered by id; a null color matches every color
+    List<Person> getPersonsByZipRange(int fromZip, int toZip, String color, long afterId, int limit);
+
+    // Pass every person to the consumer in id order without loading them all at once
+    void streamPersons(Consumer<Person> consumer);
+
     Person getPersonById(long id);
 
     List<Person> getPersonByColor(String color);
 
+    // Count persons with the given color without loading them
+    long countPersonsByColor(String color);
+
     Person addPerson(Person person);
+
+    // Add several persons at once; the result has the saved person or null per input position
+    List<Person> addPersons(List<Person> persons);
+
+    // Version of the stored persons; every add increases it once the new persons are visible to readers
+    long getDataVersion();
 }
@@ -0,0 +1,16 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.Person;
+import lombok.Getter;
+
+import java.util.List;
+
+// Published by the PersonService backends once added persons are visible to readers, in id order
+@Getter
+public class PersonsAddedEvent {
+    private final List<Person> persons;
+
+    public PersonsAddedEvent(List<Person> persons) {
+        this.persons = persons;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.personcolormanager.store;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+// Persons split across several PersonStores by id, so the work of one large query is spread over cores.
+// Every partition has its own lock, dictionaries, color posting lists and search indexes. A lookup by
+// id goes to one partition; full listings and color queries materialize every partition's persons in
+// parallel on a fork-join pool and merge them in id order, and page queries take the first limit
+// persons of the partitions' pages. Loading builds the partitions' indexes in parallel as well.
+// Persons reach the partitions one at a time, so a query reads the id up to which every added person is
+// visible before it fans out and drops later ids; otherwise it could return a person but miss an older
+// one that another partition was still adding.
+public class PartitionedPersonStore implements PersonTable {
+    private final PersonStore[] partitions;
+    private final ForkJoinPool pool;
+    private final AtomicLong lastId = new AtomicLong();
+    // Every person up to this id has been added to its partition
+    private final AtomicLong publishedId = new AtomicLong();
+
+    public PartitionedPersonStore(int partitionCount, IntFunction<String> colorNames) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        }
+        this.partitions = new PersonStore[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new PersonStore(colorNames);
+        }
+        this.pool = new ForkJoinPool(Math.min(partitionCount, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    @Override
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    @Override
+    public void add(Person person) {
+        partition(person.getId()).add(person);
+        lastId.accumulateAndGet(person.getId(), Math::max);
+        publishedId.accumulateAndGet(person.getId(), Math::max);
+    }
+
+    @Override
+    public void addAll(List<Person> persons) {
+        List<List<Person>> byPartition = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            byPartition.add(new ArrayList<>(persons.size() / partitions.length + 1));
+        }
+        long maxId = 0;
+        for (Person person : persons) {
+            byPartition.get(partitionIndex(person.getId())).add(person);
+            maxId = Math.max(maxId, person.getId());
+        }
+        pool.submit(() -> IntStream.range(0, partitions.length).parallel()
+                .forEach(i -> partitions[i].addAll(byPartition.get(i)))).join();
+        lastId.accumulateAndGet(maxId, Math::max);
+        publishedId.accumulateAndGet(maxId, Math::max);
+    }
+
+    @Override
+    public List<Person> getAll() {
+        return gather(PersonStore::getAll);
+    }
+
+    @Override
+    public List<Person> getPage(long afterId, int limit) {
+        return firstOfEach(partition -> partition.getPage(afterId, limit), limit);
+    }
+
+    @Override
+    public void forEach(Consumer<Person> consumer) {
+        long publishedId = this.publishedId.get();
+        List<List<Person>> lists = new ArrayList<>(partitions.length);
+        for (PersonStore partition : partitions) {
+            lists.add(upTo(partition.getAll(), publishedId));
+        }
+        merge(lists, Integer.MAX_VALUE, consumer);
+    }
+
+    @Override
+    public Person getById(long id) {
+        return partition(id).getById(id);
+    }
+
+    @Override
+    public List<Person> getByColorId(int colorId) {
+        if (countByColorId(colorId) == 0) {
+            return Collections.emptyList();
+        }
+        return gather(partition -> partition.getByColorId(colorId));
+    }
+
+    @Override
+    public int countByColorId(int colorId) {
+        int count = 0;
+        for (PersonStore partition : partitions) {
+            count += partition.countByColorId(colorId);
+        }
+        return count;
+    }
+
+    @Override
+    public List<Person> search(PersonSearchCriteria criteria, long afterId, int limit) {
+        return firstOfEach(partition -> partition.search(criteria, afterId, limit), limit);
+    }
+
+    @Override
+    public List<Person> getByZipRange(int fromZip, int toZip, int colorId, long afterId, int limit) {
+        return firstOfEach(partition -> partition.getByZipRange(fromZip, toZip, colorId, afterId, limit), limit);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (PersonStore partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long getLastId() {
+        return lastId.get();
+    }
+
+    // Ids are handed out one after another, so taking them modulo the partition count spreads them evenly
+    private int partitionIndex(long id) {
+        return (int) Math.floorMod(id, (long) partitions.length);
+    }
+
+    private PersonStore partition(long id) {
+        return partitions[partitionIndex(id)];
+    }
+
+    // Materialize the query's persons of every partition in parallel and merge them in id order
+    private List<Person> gather(Function<PersonStore, List<Person>> query) {
+        long publishedId = this.publishedId.get();
+        Person[][] parts = pool.submit(() -> Arrays.stream(partitions).parallel()
+                .map(partition -> upTo(query.apply(partition), publishedId).toArray(new Person[0]))
+                .toArray(Person[][]::new)).join();
+        List<List<Person>> lists = new ArrayList<>(parts.length);
+        int total = 0;
+        for (Person[] part : parts) {
+            lists.add(Arrays.asList(part));
+            total += part.length;
+        }
+        Person[] merged = new Person[total];
+        int[] count = new int[1];
+        merge(lists, total, person -> merged[count[0]++] = person);
+        return Collections.unmodifiableList(Arrays.asList(merged));
+    }
+
+    // Page queries are cheap per partition, so they run on the caller's thread
+    private List<Person> firstOfEach(Function<PersonStore, List<Person>> query, int limit) {
+        long publishedId = this.publishedId.get();
+        List<List<Person>> lists = new ArrayList<>(partitions.length);
+        for (PersonStore partition : partitions) {
+            lists.add(upTo(query.apply(partition), publishedId));
+        }
+        List<Person> persons = new ArrayList<>(Math.min(limit, 64));
+        merge(lists, limit, persons::add);
+        return persons;
+    }
+
+    // The persons of the list, in id order, up to the given id; only persons added meanwhile are dropped
+    private static List<Person> upTo(List<Person> persons, long maxId) {
+        int end = persons.size();
+        while (end > 0 && persons.get(end - 1).getId() > maxId) {
+            end--;
+        }
+        return end == persons.size() ? persons : persons.subList(0, end);
+    }
+
+    // Pass the first limit persons of the lists, each in id order, to the consumer in id order.
+    // There are only a few partitions, so the smallest head is found by looking at all of them.
+    private static void merge(List<List<Person>> lists, int limit, Consumer<Person> consumer) {
+        int[] cursors = new int[lists.size()];
+        Person[] heads = new Person[lists.size()];
+        for (int i = 0; i < heads.length; i++) {
+            heads[i] = lists.get(i).isEmpty() ? null : lists.get(i).get(0);
+        }
+        for (int passed = 0; passed < limit; passed++) {
+            int smallest = -1;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] != null && (smallest < 0 || heads[i].getId() < heads[smallest].getId())) {
+                    smallest = i;
+                }
+            }
+            if (smallest < 0) {
+                return;
+            }
+            consumer.accept(heads[smallest]);
+            List<Person> list = lists.get(smallest);
+            int cursor = ++cursors[smallest];
+            heads[smallest] = cursor < list.size() ? list.get(cursor) : null;
+        }
+    }
+}
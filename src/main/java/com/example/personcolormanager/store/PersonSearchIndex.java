@@ -0,0 +1,254 @@
+package com.example.personcolormanager.store;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+// Case-insensitive prefix index over the string columns of one store snapshot.
+// Per column the distinct values are sorted ignoring case, so the values starting with a prefix
+// form a contiguous range of ranks found by binary search. The positions of all rows with the
+// same value are stored together in position order (one offsets array, one positions array), so
+// the rows matching a prefix are the union of the position lists of its ranks.
+// The index only covers the first size() rows of the snapshot it was built from; those rows never
+// change, so the index stays valid for every later snapshot of the same store.
+final class PersonSearchIndex {
+    static final PersonSearchIndex EMPTY = new PersonSearchIndex(null, new Column[PersonStore.STRING_COLUMNS]);
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final PersonStore.Snapshot snapshot;
+    private final Column[] columns;
+
+    private PersonSearchIndex(PersonStore.Snapshot snapshot, Column[] columns) {
+        this.snapshot = snapshot;
+        this.columns = columns;
+    }
+
+    static PersonSearchIndex build(PersonStore.Snapshot snapshot) {
+        if (snapshot.size() == 0) {
+            return EMPTY;
+        }
+        Column[] columns = new Column[PersonStore.STRING_COLUMNS];
+        for (int column = 0; column < columns.length; column++) {
+            columns[column] = Column.build(snapshot, column);
+        }
+        return new PersonSearchIndex(snapshot, columns);
+    }
+
+    // Rows covered by the index
+    int size() {
+        return snapshot == null ? 0 : snapshot.size();
+    }
+
+    // Positions from start on, in position order, of up to limit indexed rows whose columns start
+    // with the non-empty prefixes
+    int[] search(String[] prefixes, int start, int limit) {
+        int size = size();
+        if (start >= size) {
+            return NO_POSITIONS;
+        }
+
+        // Drive the search from the column with the fewest matching rows, check the others by rank
+        int[] lowRanks = new int[columns.length];
+        int[] highRanks = new int[columns.length];
+        boolean[] filtered = new boolean[columns.length];
+        int driver = -1;
+        int driverMatches = Integer.MAX_VALUE;
+        for (int column = 0; column < columns.length; column++) {
+            String prefix = prefixes[column];
+            if (prefix == null || prefix.isEmpty()) {
+                continue;
+            }
+            Column index = columns[column];
+            lowRanks[column] = index.firstRank(prefix, false);
+            highRanks[column] = index.firstRank(prefix, true);
+            int matches = index.offsets[highRanks[column]] - index.offsets[lowRanks[column]];
+            if (matches == 0) {
+                return NO_POSITIONS;
+            }
+            filtered[column] = true;
+            if (matches < driverMatches) {
+                driver = column;
+                driverMatches = matches;
+            }
+        }
+        if (driver == -1) {
+            return IntStream.range(start, (int) Math.min(size, (long) start + limit)).toArray();
+        }
+
+        // Scanning stops after about limit * size / matches rows; merging the position lists of all
+        // matching values costs a binary search and a heap entry per value
+        int values = highRanks[driver] - lowRanks[driver];
+        long scanCost = Math.min(size - start, (long) limit * size / driverMatches);
+        long mergeCost = (long) values * 32 + (long) limit * 8;
+        int[] found = new int[Math.min(limit, driverMatches)];
+        int count = scanCost <= mergeCost
+                ? scan(filtered, lowRanks, highRanks, start, found)
+                : merge(driver, filtered, lowRanks, highRanks, start, found);
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    private int scan(boolean[] filtered, int[] lowRanks, int[] highRanks, int start, int[] found) {
+        int count = 0;
+        for (int position = start; position < size() && count < found.length; position++) {
+            if (matches(position, -1, filtered, lowRanks, highRanks)) {
+                found[count++] = position;
+            }
+        }
+        return count;
+    }
+
+    // k-way merge of the position lists of the driver's matching ranks, each entered at start
+    private int merge(int driver, boolean[] filtered, int[] lowRanks, int[] highRanks, int start, int[] found) {
+        Column index = columns[driver];
+        int lowRank = lowRanks[driver];
+        int values = highRanks[driver] - lowRank;
+        int[] cursors = new int[values];
+        PriorityQueue<Long> heads = new PriorityQueue<>(Math.max(1, values));
+        for (int i = 0; i < values; i++) {
+            int cursor = index.firstPositionFrom(lowRank + i, start);
+            cursors[i] = cursor;
+            if (cursor < index.offsets[lowRank + i + 1]) {
+                heads.add(((long) index.positions[cursor] << 32) | i);
+            }
+        }
+
+        int count = 0;
+        while (!heads.isEmpty() && count < found.length) {
+            long head = heads.poll();
+            int position = (int) (head >>> 32);
+            int i = (int) head;
+            if (matches(position, driver, filtered, lowRanks, highRanks)) {
+                found[count++] = position;
+            }
+            int cursor = ++cursors[i];
+            if (cursor < index.offsets[lowRank + i + 1]) {
+                heads.add(((long) index.positions[cursor] << 32) | i);
+            }
+        }
+        return count;
+    }
+
+    private boolean matches(int position, int skippedColumn, boolean[] filtered, int[] lowRanks, int[] highRanks) {
+        for (int column = 0; column < columns.length; column++) {
+            if (filtered[column] && column != skippedColumn) {
+                int code = snapshot.code(column, position);
+                if (code == StringDictionary.NO_CODE) {
+                    return false;
+                }
+                int rank = columns[column].rankByCode[code];
+                if (rank < lowRanks[column] || rank >= highRanks[column]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Compare the start of the value with the prefix, folding case like String.CASE_INSENSITIVE_ORDER
+    private static int comparePrefix(String value, String prefix) {
+        int length = Math.min(value.length(), prefix.length());
+        for (int i = 0; i < length; i++) {
+            char c1 = value.charAt(i);
+            char c2 = prefix.charAt(i);
+            if (c1 != c2) {
+                c1 = Character.toUpperCase(c1);
+                c2 = Character.toUpperCase(c2);
+                if (c1 != c2) {
+                    c1 = Character.toLowerCase(c1);
+                    c2 = Character.toLowerCase(c2);
+                    if (c1 != c2) {
+                        return c1 - c2;
+                    }
+                }
+            }
+        }
+        return value.length() < prefix.length() ? -1 : 0;
+    }
+
+    private static final class Column {
+        private final String[] values;
+        private final int[] sortedCodes;
+        // Rank of each code in sortedCodes
+        private final int[] rankByCode;
+        // Positions of the rows of rank r are positions[offsets[r]] to positions[offsets[r + 1] - 1]
+        private final int[] offsets;
+        private final int[] positions;
+
+        private Column(String[] values, int[] sortedCodes, int[] rankByCode, int[] offsets, int[] positions) {
+            this.values = values;
+            this.sortedCodes = sortedCodes;
+            this.rankByCode = rankByCode;
+            this.offsets = offsets;
+            this.positions = positions;
+        }
+
+        private static Column build(PersonStore.Snapshot snapshot, int column) {
+            String[] values = snapshot.values(column);
+            int distinct = snapshot.dictionarySize(column);
+            int[] sortedCodes = IntStream.range(0, distinct)
+                    .boxed()
+                    .sorted((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(values[a], values[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int[] rankByCode = new int[distinct];
+            for (int rank = 0; rank < distinct; rank++) {
+                rankByCode[sortedCodes[rank]] = rank;
+            }
+
+            // Counting sort of the positions by rank; rows without a value are left out
+            int size = snapshot.size();
+            int[] offsets = new int[distinct + 1];
+            for (int position = 0; position < size; position++) {
+                int code = snapshot.code(column, position);
+                if (code != StringDictionary.NO_CODE) {
+                    offsets[rankByCode[code] + 1]++;
+                }
+            }
+            for (int rank = 0; rank < distinct; rank++) {
+                offsets[rank + 1] += offsets[rank];
+            }
+            int[] next = Arrays.copyOf(offsets, distinct);
+            int[] positions = new int[offsets[distinct]];
+            for (int position = 0; position < size; position++) {
+                int code = snapshot.code(column, position);
+                if (code != StringDictionary.NO_CODE) {
+                    positions[next[rankByCode[code]]++] = position;
+                }
+            }
+            return new Column(values, sortedCodes, rankByCode, offsets, positions);
+        }
+
+        // First rank whose value does not sort before the prefix, or, with after set, whose value
+        // sorts after all values starting with the prefix
+        private int firstRank(String prefix, boolean after) {
+            int low = 0;
+            int high = sortedCodes.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int comparison = comparePrefix(values[sortedCodes[middle]], prefix);
+                if (comparison < 0 || (after && comparison == 0)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Index into positions of the first row of the rank at or after the given position
+        private int firstPositionFrom(int rank, int position) {
+            int low = offsets[rank];
+            int high = offsets[rank + 1];
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (positions[middle] < position) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.example.personcolormanager.store;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import com.example.personcolormanager.util.ZipCodes;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// In-memory person store for a read-heavy mix: readers never lock, writers are serialized.
+// Persons are kept column by column in fixed-size segments that are appended in id order and
+// never moved: ids and color ids as primitives, the string fields as codes into per-column
+// dictionaries. Color names are not stored but resolved when a person is materialized, and
+// Person objects are only created for the persons a reader actually asks for.
+// After each write the writer publishes an immutable Snapshot through a volatile field; a reader
+// only looks at the rows covered by the snapshot it read, which the writer no longer touches.
+public class PersonStore implements PersonTable {
+    private static final int SEGMENT_SHIFT = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // Dictionary-encoded string columns
+    static final int NAME = 0;
+    static final int LAST_NAME = 1;
+    static final int ZIP_CODE = 2;
+    static final int CITY = 3;
+    static final int STRING_COLUMNS = 4;
+
+    // Color id argument that matches every color
+    public static final int ANY_COLOR = -1;
+
+    // Rows the search and zip code indexes may lag behind before they are rebuilt in the background
+    private static final int MAX_UNINDEXED_ROWS = 1 << 14;
+
+    private final IntFunction<String> colorNames;
+    private final AtomicLong lastId = new AtomicLong();
+
+    // Written only while holding the store lock
+    private Segment[] segments = new Segment[1];
+    private final StringDictionary[] dictionaries = {
+            new StringDictionary(), new StringDictionary(), new StringDictionary(), new StringDictionary()};
+    private int[][] postingsByColorId = new int[16][];
+    private int[] postingCounts = new int[16];
+    private int size;
+
+    private volatile Snapshot snapshot;
+    private volatile PersonSearchIndex searchIndex = PersonSearchIndex.EMPTY;
+    private volatile ZipCodeIndex zipCodeIndex = ZipCodeIndex.EMPTY;
+    private final AtomicBoolean rebuildingIndexes = new AtomicBoolean();
+
+    // Resolve color names through the given function when persons are read
+    public PersonStore(IntFunction<String> colorNames) {
+        this.colorNames = colorNames;
+        publish();
+    }
+
+    // Reserve the next identifier; ids are handed out monotonically without locking
+    @Override
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    // Add a person that already carries its identifier; ids must be added in increasing order
+    @Override
+    public synchronized void add(Person person) {
+        append(person);
+        publish();
+    }
+
+    // Add all persons and make them visible to readers at once, with the indexes rebuilt
+    @Override
+    public synchronized void addAll(List<Person> newPersons) {
+        for (Person person : newPersons) {
+            append(person);
+        }
+        publish();
+        searchIndex = PersonSearchIndex.build(snapshot);
+        zipCodeIndex = ZipCodeIndex.build(snapshot);
+    }
+
+    // Get all persons in id order. The list is an immutable view of the current snapshot
+    // and does not change when persons are added later.
+    @Override
+    public List<Person> getAll() {
+        return new SnapshotList(snapshot);
+    }
+
+    // Get up to limit persons with an id greater than afterId
+    @Override
+    public List<Person> getPage(long afterId, int limit) {
+        Snapshot current = snapshot;
+        int start = current.positionAfter(afterId);
+        int end = (int) Math.min(current.size, (long) start + limit);
+        return new SnapshotList(current).subList(start, end);
+    }
+
+    // Pass every person to the consumer in id order
+    @Override
+    public void forEach(Consumer<Person> consumer) {
+        Snapshot current = snapshot;
+        for (int i = 0; i < current.size; i++) {
+            consumer.accept(current.person(i));
+        }
+    }
+
+    // Get a person by id, or null if no such person exists
+    @Override
+    public Person getById(long id) {
+        Snapshot current = snapshot;
+        int position = current.positionAfter(id - 1);
+        return position < current.size && current.id(position) == id ? current.person(position) : null;
+    }
+
+    // Get all persons with the given color id in id order, as an immutable view
+    @Override
+    public List<Person> getByColorId(int colorId) {
+        Snapshot current = snapshot;
+        if (colorId < 0 || colorId >= current.postingCounts.length || current.postingCounts[colorId] == 0) {
+            return Collections.emptyList();
+        }
+        return new PostingList(current, current.postingsByColorId[colorId], current.postingCounts[colorId]);
+    }
+
+    // Count persons with the given color id
+    @Override
+    public int countByColorId(int colorId) {
+        Snapshot current = snapshot;
+        return colorId >= 0 && colorId < current.postingCounts.length ? current.postingCounts[colorId] : 0;
+    }
+
+    // Get up to limit persons with an id greater than afterId whose fields start with the
+    // criteria's prefixes, ignoring case. Rows added since the search index was built are scanned.
+    @Override
+    public List<Person> search(PersonSearchCriteria criteria, long afterId, int limit) {
+        // Indexes are only built from published snapshots, so reading the index first guarantees that
+        // the snapshot covers every row the index knows
+        PersonSearchIndex index = searchIndex;
+        Snapshot current = snapshot;
+        String[] prefixes = new String[STRING_COLUMNS];
+        prefixes[NAME] = criteria.getName();
+        prefixes[LAST_NAME] = criteria.getLastName();
+        prefixes[ZIP_CODE] = criteria.getZipCode();
+        prefixes[CITY] = criteria.getCity();
+
+        int start = current.positionAfter(afterId);
+        List<Person> persons = new ArrayList<>(Math.min(limit, 64));
+        for (int position : index.search(prefixes, start, limit)) {
+            if (position >= current.size) {
+                break;
+            }
+            persons.add(current.person(position));
+        }
+        for (int position = Math.max(start, index.size()); position < current.size && persons.size() < limit; position++) {
+            if (current.matches(position, prefixes)) {
+                persons.add(current.person(position));
+            }
+        }
+        rebuildIndexesIfStale(current, index.size());
+        return persons;
+    }
+
+    // Get up to limit persons with an id greater than afterId, a numeric zip code between fromZip and
+    // toZip inclusive and the given color id (or ANY_COLOR), in id order
+    @Override
+    public List<Person> getByZipRange(int fromZip, int toZip, int colorId, long afterId, int limit) {
+        // Read the index first, as in search, so the snapshot covers every row it knows
+        ZipCodeIndex index = zipCodeIndex;
+        Snapshot current = snapshot;
+        int[] colorPostings = null;
+        int colorCount = 0;
+        if (colorId != ANY_COLOR) {
+            if (colorId < 0 || colorId >= current.postingCounts.length || current.postingCounts[colorId] == 0) {
+                return Collections.emptyList();
+            }
+            colorPostings = current.postingsByColorId[colorId];
+            colorCount = current.postingCounts[colorId];
+        }
+
+        int start = current.positionAfter(afterId);
+        List<Person> persons = new ArrayList<>(Math.min(limit, 64));
+        for (int position : index.search(fromZip, toZip, colorPostings, colorCount, start, limit, current)) {
+            persons.add(current.person(position));
+        }
+        for (int position = Math.max(start, index.size()); position < current.size && persons.size() < limit; position++) {
+            if ((colorId == ANY_COLOR || current.colorId(position) == colorId) && current.zipInRange(position, fromZip, toZip)) {
+                persons.add(current.person(position));
+            }
+        }
+        rebuildIndexesIfStale(current, index.size());
+        return persons;
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size;
+    }
+
+    @Override
+    public long getLastId() {
+        return lastId.get();
+    }
+
+    // Write the person into the row after the published ones; readers cannot see it before publish()
+    private void append(Person person) {
+        long id = person.getId();
+        if (size > 0 && id <= id(size - 1)) {
+            throw new IllegalArgumentException("Person id " + id + " is not greater than the last id " + id(size - 1));
+        }
+        int colorId = person.getColorId();
+        if (colorId < 0) {
+            throw new IllegalArgumentException("Negative color id: " + colorId);
+        }
+
+        int index = size >>> SEGMENT_SHIFT;
+        if (index == segments.length) {
+            // Copy only the segment directory; published snapshots keep the old one
+            segments = Arrays.copyOf(segments, index << 1);
+        }
+        if (segments[index] == null) {
+            segments[index] = new Segment();
+        }
+        Segment segment = segments[index];
+        int row = size & SEGMENT_MASK;
+        segment.ids[row] = id;
+        segment.colorIds[row] = colorId;
+        segment.codes[NAME][row] = dictionaries[NAME].encode(person.getName());
+        segment.codes[LAST_NAME][row] = dictionaries[LAST_NAME].encode(person.getLastName());
+        segment.codes[ZIP_CODE][row] = dictionaries[ZIP_CODE].encode(person.getZipCode());
+        segment.codes[CITY][row] = dictionaries[CITY].encode(person.getCity());
+        addPosting(colorId, size);
+        size++;
+        lastId.accumulateAndGet(id, Math::max);
+    }
+
+    private void addPosting(int colorId, int position) {
+        if (colorId >= postingCounts.length) {
+            int length = Integer.highestOneBit(colorId) << 1;
+            postingsByColorId = Arrays.copyOf(postingsByColorId, length);
+            postingCounts = Arrays.copyOf(postingCounts, length);
+        }
+        int[] postings = postingsByColorId[colorId];
+        int count = postingCounts[colorId];
+        if (postings == null || count == postings.length) {
+            // Grow into a new array; published snapshots keep reading the old one
+            postings = postings == null ? new int[16] : Arrays.copyOf(postings, count + (count >> 1));
+            postingsByColorId[colorId] = postings;
+        }
+        postings[count] = position;
+        postingCounts[colorId] = count + 1;
+    }
+
+    private long id(int position) {
+        return segments[position >>> SEGMENT_SHIFT].ids[position & SEGMENT_MASK];
+    }
+
+    // The volatile write makes every row written so far visible to readers of the new snapshot
+    private void publish() {
+        snapshot = new Snapshot(this);
+    }
+
+    // Build new indexes off the request thread once too many rows are not covered by them
+    private void rebuildIndexesIfStale(Snapshot current, int indexedRows) {
+        int unindexedRows = current.size - indexedRows;
+        if (unindexedRows > Math.max(MAX_UNINDEXED_ROWS, indexedRows >> 3) && rebuildingIndexes.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    Snapshot latest = snapshot;
+                    PersonSearchIndex rebuiltSearchIndex = PersonSearchIndex.build(latest);
+                    ZipCodeIndex rebuiltZipCodeIndex = ZipCodeIndex.build(latest);
+                    synchronized (this) {
+                        if (rebuiltSearchIndex.size() > searchIndex.size()) {
+                            searchIndex = rebuiltSearchIndex;
+                        }
+                        if (rebuiltZipCodeIndex.size() > zipCodeIndex.size()) {
+                            zipCodeIndex = rebuiltZipCodeIndex;
+                        }
+                    }
+                } finally {
+                    rebuildingIndexes.set(false);
+                }
+            });
+        }
+    }
+
+    // One column per field for SEGMENT_SIZE rows
+    private static final class Segment {
+        private final long[] ids = new long[SEGMENT_SIZE];
+        private final int[] colorIds = new int[SEGMENT_SIZE];
+        private final int[][] codes = new int[STRING_COLUMNS][SEGMENT_SIZE];
+    }
+
+    // Immutable view of the store: segments and dictionaries are shared, but only the first size
+    // rows and the dictionary entries they refer to are read
+    static final class Snapshot {
+        private final IntFunction<String> colorNames;
+        private final Segment[] segments;
+        private final int size;
+        private final String[][] values = new String[STRING_COLUMNS][];
+        private final int[] dictionarySizes = new int[STRING_COLUMNS];
+        private final int[][] postingsByColorId;
+        private final int[] postingCounts;
+
+        private Snapshot(PersonStore store) {
+            this.colorNames = store.colorNames;
+            this.segments = store.segments;
+            this.size = store.size;
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                values[column] = store.dictionaries[column].values();
+                dictionarySizes[column] = store.dictionaries[column].size();
+            }
+            this.postingsByColorId = store.postingsByColorId.clone();
+            this.postingCounts = store.postingCounts.clone();
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Dictionary code of the string column at the position
+        int code(int column, int position) {
+            return segments[position >>> SEGMENT_SHIFT].codes[column][position & SEGMENT_MASK];
+        }
+
+        // Dictionary values of the string column; codes below dictionarySize(column) are valid
+        String[] values(int column) {
+            return values[column];
+        }
+
+        int dictionarySize(int column) {
+            return dictionarySizes[column];
+        }
+
+        // Whether every non-empty prefix matches the start of its column, ignoring case
+        private boolean matches(int position, String[] prefixes) {
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                String prefix = prefixes[column];
+                if (prefix != null && !prefix.isEmpty()) {
+                    String value = StringDictionary.decode(values[column], code(column, position));
+                    if (value == null || !value.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private int colorId(int position) {
+            return segments[position >>> SEGMENT_SHIFT].colorIds[position & SEGMENT_MASK];
+        }
+
+        private boolean zipInRange(int position, int fromZip, int toZip) {
+            int zip = ZipCodes.parse(StringDictionary.decode(values[ZIP_CODE], code(ZIP_CODE, position)));
+            return zip != ZipCodes.NO_ZIP && zip >= fromZip && zip <= toZip;
+        }
+
+        // Materialize the person at the position
+        private Person person(int position) {
+            Segment segment = segments[position >>> SEGMENT_SHIFT];
+            int row = position & SEGMENT_MASK;
+            int colorId = segment.colorIds[row];
+            return new Person(segment.ids[row],
+                    StringDictionary.decode(values[NAME], segment.codes[NAME][row]),
+                    StringDictionary.decode(values[LAST_NAME], segment.codes[LAST_NAME][row]),
+                    StringDictionary.decode(values[ZIP_CODE], segment.codes[ZIP_CODE][row]),
+                    StringDictionary.decode(values[CITY], segment.codes[CITY][row]),
+                    colorNames.apply(colorId),
+                    colorId);
+        }
+
+        private long id(int position) {
+            return segments[position >>> SEGMENT_SHIFT].ids[position & SEGMENT_MASK];
+        }
+
+        // Position of the first person with an id greater than the given id. Ids are usually evenly
+        // spaced (dense, or every n-th id in a partition), so the position is interpolated from the id
+        // before falling back to binary search.
+        private int positionAfter(long id) {
+            if (size == 0 || id < id(0)) {
+                return 0;
+            }
+            long first = id(0);
+            long last = id(size - 1);
+            if (id >= last) {
+                return size;
+            }
+            int guess = (int) ((id - first) * (size - 1) / (last - first));
+            if (id(guess) <= id && id(guess + 1) > id) {
+                return guess + 1;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (id(middle) <= id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class SnapshotList extends AbstractList<Person> implements RandomAccess {
+        private final Snapshot snapshot;
+
+        private SnapshotList(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public Person get(int index) {
+            Objects.checkIndex(index, snapshot.size);
+            return snapshot.person(index);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size;
+        }
+    }
+
+    private static final class PostingList extends AbstractList<Person> implements RandomAccess {
+        private final Snapshot snapshot;
+        private final int[] postings;
+        private final int size;
+
+        private PostingList(Snapshot snapshot, int[] postings, int size) {
+            this.snapshot = snapshot;
+            this.postings = postings;
+            this.size = size;
+        }
+
+        @Override
+        public Person get(int index) {
+            Objects.checkIndex(index, size);
+            return snapshot.person(postings[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.personcolormanager.store;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Persons held in memory for the CSV backend, either in one PersonStore or partitioned across several.
+// Readers never lock; lists are returned in id order and do not change when persons are added later.
+public interface PersonTable {
+
+    // Reserve the next identifier; ids are handed out monotonically without locking
+    long nextId();
+
+    // Add a person that already carries its identifier; ids must be added in increasing order
+    void add(Person person);
+
+    // Add all persons and make them visible to readers at once, with the indexes rebuilt
+    void addAll(List<Person> persons);
+
+    // Get all persons in id order
+    List<Person> getAll();
+
+    // Get up to limit persons with an id greater than afterId
+    List<Person> getPage(long afterId, int limit);
+
+    // Pass every person to the consumer in id order
+    void forEach(Consumer<Person> consumer);
+
+    // Get a person by id, or null if no such person exists
+    Person getById(long id);
+
+    // Get all persons with the given color id in id order
+    List<Person> getByColorId(int colorId);
+
+    // Count persons with the given color id
+    int countByColorId(int colorId);
+
+    // Get up to limit persons with an id greater than afterId whose fields start with the criteria's prefixes, ignoring case
+    List<Person> search(PersonSearchCriteria criteria, long afterId, int limit);
+
+    // Get up to limit persons with an id greater than afterId, a numeric zip code between fromZip and
+    // toZip inclusive and the given color id (or PersonStore.ANY_COLOR), in id order
+    List<Person> getByZipRange(int fromZip, int toZip, int colorId, long afterId, int limit);
+
+    int size();
+
+    long getLastId();
+}
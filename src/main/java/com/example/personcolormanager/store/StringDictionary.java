@@ -0,0 +1,82 @@
+package com.example.personcolormanager.store;
+
+import java.util.Arrays;
+
+// Append-only dictionary that maps each distinct string to a dense int code.
+// Codes are found through an open addressing table of codes, so apart from the string itself
+// a value costs a few ints. Not thread-safe for writers; readers use a published values array.
+public class StringDictionary {
+    public static final int NO_CODE = -1;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private String[] values = new String[16];
+    private int size;
+
+    // Slot holds code + 1, 0 marks an empty slot
+    private int[] table = new int[32];
+    private int mask = table.length - 1;
+
+    // Get the code for the value, adding it if it is new; null has no code
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        int slot = slot(value.hashCode());
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return add(value, slot);
+            }
+            if (values[entry - 1].equals(value)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Values by code. Entries below size() never change, so the array can be handed to readers;
+    // it is replaced, not modified, when the dictionary outgrows it.
+    public String[] values() {
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static String decode(String[] values, int code) {
+        return code == NO_CODE ? null : values[code];
+    }
+
+    private int add(String value, int slot) {
+        int code = size;
+        if (code == values.length) {
+            values = Arrays.copyOf(values, code << 1);
+        }
+        values[code] = value;
+        size++;
+        table[slot] = code + 1;
+        if (size > table.length * LOAD_FACTOR) {
+            rehash(table.length << 1);
+        }
+        return code;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = slot(values[code].hashCode());
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code + 1;
+        }
+    }
+
+    private int slot(int hash) {
+        int spread = hash * 0x9E3779B9;
+        return (spread ^ (spread >>> 16)) & mask;
+    }
+}
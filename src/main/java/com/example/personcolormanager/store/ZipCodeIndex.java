@@ -0,0 +1,204 @@
+package com.example.personcolormanager.store;
+
+import com.example.personcolormanager.util.ZipCodes;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+// Zip code range index over one store snapshot.
+// The distinct numeric zip codes are kept sorted, so a range is a contiguous run of them, and the
+// positions of the rows with each zip code are stored together in position order, like the posting
+// lists by color id. Rows whose zip code is not a number are left out.
+// Like PersonSearchIndex, the index covers the first size() rows of the snapshot it was built from.
+final class ZipCodeIndex {
+    static final ZipCodeIndex EMPTY = new ZipCodeIndex(0, new int[0], new int[0], new int[1], new int[0]);
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final int size;
+    // Numeric zip code per zip code dictionary code, or ZipCodes.NO_ZIP
+    private final int[] zipByCode;
+    private final int[] zips;
+    // Positions of the rows with zips[r] are positions[offsets[r]] to positions[offsets[r + 1] - 1]
+    private final int[] offsets;
+    private final int[] positions;
+
+    private ZipCodeIndex(int size, int[] zipByCode, int[] zips, int[] offsets, int[] positions) {
+        this.size = size;
+        this.zipByCode = zipByCode;
+        this.zips = zips;
+        this.offsets = offsets;
+        this.positions = positions;
+    }
+
+    static ZipCodeIndex build(PersonStore.Snapshot snapshot) {
+        if (snapshot.size() == 0) {
+            return EMPTY;
+        }
+        String[] values = snapshot.values(PersonStore.ZIP_CODE);
+        int[] zipByCode = new int[snapshot.dictionarySize(PersonStore.ZIP_CODE)];
+        for (int code = 0; code < zipByCode.length; code++) {
+            zipByCode[code] = ZipCodes.parse(values[code]);
+        }
+        int[] zips = Arrays.stream(zipByCode).filter(zip -> zip != ZipCodes.NO_ZIP).sorted().distinct().toArray();
+        int[] rankByCode = new int[zipByCode.length];
+        for (int code = 0; code < zipByCode.length; code++) {
+            rankByCode[code] = zipByCode[code] == ZipCodes.NO_ZIP ? -1 : Arrays.binarySearch(zips, zipByCode[code]);
+        }
+
+        // Counting sort of the positions by zip code rank
+        int size = snapshot.size();
+        int[] offsets = new int[zips.length + 1];
+        for (int position = 0; position < size; position++) {
+            int rank = rank(snapshot.code(PersonStore.ZIP_CODE, position), rankByCode);
+            if (rank >= 0) {
+                offsets[rank + 1]++;
+            }
+        }
+        for (int rank = 0; rank < zips.length; rank++) {
+            offsets[rank + 1] += offsets[rank];
+        }
+        int[] next = Arrays.copyOf(offsets, zips.length);
+        int[] positions = new int[offsets[zips.length]];
+        for (int position = 0; position < size; position++) {
+            int rank = rank(snapshot.code(PersonStore.ZIP_CODE, position), rankByCode);
+            if (rank >= 0) {
+                positions[next[rank]++] = position;
+            }
+        }
+        return new ZipCodeIndex(size, zipByCode, zips, offsets, positions);
+    }
+
+    // Rows covered by the index
+    int size() {
+        return size;
+    }
+
+    // Positions from start on, in position order, of up to limit indexed rows with a zip code in
+    // [fromZip, toZip]. With color postings, only rows that are also in the first colorCount of them.
+    int[] search(int fromZip, int toZip, int[] colorPostings, int colorCount, int start, int limit,
+                 PersonStore.Snapshot snapshot) {
+        if (start >= size || fromZip > toZip) {
+            return NO_POSITIONS;
+        }
+        int lowRank = firstRankFrom(fromZip);
+        int highRank = toZip == Integer.MAX_VALUE ? zips.length : firstRankFrom(toZip + 1);
+        int matches = offsets[highRank] - offsets[lowRank];
+        if (matches == 0) {
+            return NO_POSITIONS;
+        }
+
+        // Either merge the position lists of the zip codes in range, intersecting them with the color
+        // postings, or walk the color postings (or all rows) and look up each row's zip code. Walking
+        // stops after about limit * size / matches rows; merging costs a binary search and a heap
+        // entry per zip code, plus the rows skipped on both sides.
+        int colorStart = colorPostings == null ? start : firstFrom(colorPostings, 0, colorCount, start);
+        long candidates = colorPostings == null ? size - start : colorCount - colorStart;
+        long walkCost = Math.min(candidates, (long) limit * size / matches);
+        long mergeCost = (long) (highRank - lowRank) * 32 + (long) limit * 8;
+        int[] found = new int[(int) Math.min(limit, Math.min(matches, candidates))];
+        // Never return rows the given snapshot does not have, should it be older than this index
+        int rows = Math.min(size, snapshot.size());
+        int count = walkCost <= mergeCost
+                ? walk(fromZip, toZip, colorPostings, colorCount, colorStart, rows, found, snapshot)
+                : merge(lowRank, highRank, colorPostings, colorCount, colorStart, start, rows, found);
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    private int walk(int fromZip, int toZip, int[] colorPostings, int colorCount, int colorStart, int rows,
+                     int[] found, PersonStore.Snapshot snapshot) {
+        int count = 0;
+        int end = colorPostings == null ? rows : colorCount;
+        for (int i = colorStart; i < end && count < found.length; i++) {
+            int position = colorPostings == null ? i : colorPostings[i];
+            if (position >= rows) {
+                break;
+            }
+            int code = snapshot.code(PersonStore.ZIP_CODE, position);
+            int zip = code == StringDictionary.NO_CODE ? ZipCodes.NO_ZIP : zipByCode[code];
+            if (zip != ZipCodes.NO_ZIP && zip >= fromZip && zip <= toZip) {
+                found[count++] = position;
+            }
+        }
+        return count;
+    }
+
+    // k-way merge of the position lists of the zip codes in range. With color postings the merged
+    // stream and the color postings are intersected, each side skipping ahead to the other's next row.
+    private int merge(int lowRank, int highRank, int[] colorPostings, int colorCount, int colorCursor, int start,
+                      int rows, int[] found) {
+        int lists = highRank - lowRank;
+        int[] cursors = new int[lists];
+        PriorityQueue<Long> heads = new PriorityQueue<>(lists);
+        for (int i = 0; i < lists; i++) {
+            int cursor = firstFrom(positions, offsets[lowRank + i], offsets[lowRank + i + 1], start);
+            cursors[i] = cursor;
+            if (cursor < offsets[lowRank + i + 1]) {
+                heads.add(((long) positions[cursor] << 32) | i);
+            }
+        }
+
+        int count = 0;
+        while (!heads.isEmpty() && count < found.length) {
+            long head = heads.poll();
+            int position = (int) (head >>> 32);
+            if (position >= rows) {
+                break;
+            }
+            int i = (int) head;
+            int end = offsets[lowRank + i + 1];
+            if (colorPostings != null) {
+                colorCursor = firstFrom(colorPostings, colorCursor, colorCount, position);
+                if (colorCursor == colorCount) {
+                    break;
+                }
+                int colorPosition = colorPostings[colorCursor];
+                if (colorPosition > position) {
+                    // Skip this zip code's rows that have another color
+                    int cursor = firstFrom(positions, cursors[i] + 1, end, colorPosition);
+                    cursors[i] = cursor;
+                    if (cursor < end) {
+                        heads.add(((long) positions[cursor] << 32) | i);
+                    }
+                    continue;
+                }
+            }
+            found[count++] = position;
+            int cursor = ++cursors[i];
+            if (cursor < end) {
+                heads.add(((long) positions[cursor] << 32) | i);
+            }
+        }
+        return count;
+    }
+
+    private int firstRankFrom(int zip) {
+        int rank = Arrays.binarySearch(zips, zip);
+        return rank >= 0 ? rank : -rank - 1;
+    }
+
+    private static int rank(int code, int[] rankByCode) {
+        return code == StringDictionary.NO_CODE ? -1 : rankByCode[code];
+    }
+
+    // Index of the first value in values[from, to) that is at least key; values are ascending.
+    // Gallops ahead first, since the caller usually skips only a few entries.
+    private static int firstFrom(int[] values, int from, int to, int key) {
+        int bound = 1;
+        int low = from;
+        while (low + bound < to && values[low + bound] < key) {
+            low += bound;
+            bound <<= 1;
+        }
+        int high = Math.min(to, low + bound);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
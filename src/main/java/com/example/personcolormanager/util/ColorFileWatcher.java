@@ -0,0 +1,85 @@
+package com.example.personcolormanager.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// Reloads the color mappings when the colors file changes on disk.
+// Only active when the colors resource is a plain file, e.g. colors.location=file:/etc/app/colors.csv
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "colors.watch.enabled", havingValue = "true", matchIfMissing = true)
+public class ColorFileWatcher {
+    // Editors often write a file in several steps, so wait for the writes to settle
+    private static final long SETTLE_MILLIS = 200;
+
+    private final ColorMappingUtil colorMappingUtil;
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public ColorFileWatcher(ColorMappingUtil colorMappingUtil) {
+        this.colorMappingUtil = colorMappingUtil;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!colorMappingUtil.getColorCsvResource().isFile()) {
+            log.info("{} is not a file, colors will not be reloaded on change", colorMappingUtil.getColorCsvResource().getDescription());
+            return;
+        }
+        Path colorFile = colorMappingUtil.getColorCsvResource().getFile().toPath().toAbsolutePath();
+        watchService = FileSystems.getDefault().newWatchService();
+        colorFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcherThread = new Thread(() -> watch(colorFile), "color-file-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    private void watch(Path colorFile) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= colorFile.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    TimeUnit.MILLISECONDS.sleep(SETTLE_MILLIS);
+                    drainPendingEvents();
+                    colorMappingUtil.reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private void drainPendingEvents() {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watcherThread.interrupt();
+        }
+    }
+}
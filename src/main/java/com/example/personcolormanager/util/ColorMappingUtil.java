@@ -1,6 +1,8 @@
 package com.example.personcolormanager.util;
 
+import com.example.personcolormanager.service.DataLoadService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
@@ -10,67 +12,140 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 @Slf4j
 public class ColorMappingUtil {
     private final Resource colorCsvResource;
+    // Loads the colors in the background when set; without one, init() has to be called
+    private final DataLoadService dataLoadService;
 
-    // CSV file resource for color mappings
-    private Map<Integer, String> colorMapping = new HashMap<>();
-    private Map<String, Integer> reverseColorMapping = new HashMap<>();
+    // Current color mappings; replaced as a whole so readers never see a partially loaded palette
+    private volatile ColorPalette palette = ColorPalette.EMPTY;
+
+    // Increased on every successful reload, since color names in responses may change with it
+    private final AtomicLong paletteVersion = new AtomicLong();
+
+    // Color names that could not be resolved; a LongAdder keeps concurrent lookups from contending
+    private final LongAdder lookupMisses = new LongAdder();
+
+    public ColorMappingUtil(Resource colorCsvResource) {
+        this(colorCsvResource, null);
+    }
 
     // Constructor injection of color CSV resource
-    public ColorMappingUtil(@Value("classpath:colors.csv") Resource colorCsvResource) {
+    @Autowired
+    public ColorMappingUtil(@Value("${colors.location:classpath:colors.csv}") Resource colorCsvResource,
+                            DataLoadService dataLoadService) {
         this.colorCsvResource = colorCsvResource;
+        this.dataLoadService = dataLoadService;
     }
 
-    // Method called after bean initialization to load color mappings
+    // Method called after bean initialization to start loading the color mappings
     @PostConstruct
+    public void startLoading() {
+        if (dataLoadService == null) {
+            init();
+            return;
+        }
+        dataLoadService.start("colors", load -> {
+            load.setPhase("reading " + colorCsvResource.getFilename());
+            init();
+            load.setRecords(palette.size());
+        });
+    }
+
+    // Load the color mappings
     public void init() {
         if (colorCsvResource == null) {
             // Log an error and throw an exception if the CSV resource is empty or not found
             log.error("The CSV resource for colors is empty. Please check if the file exists.");
             throw new IllegalArgumentException("The CSV resource for colors is empty.");
         }
-        loadColorMapping();
+        palette = loadColorMapping();
+    }
+
+    // Reload the color mappings and swap them in atomically; keeps the current palette if the file cannot be read
+    public boolean reload() {
+        try {
+            ColorPalette reloadedPalette = loadColorMapping();
+            palette = reloadedPalette;
+            paletteVersion.incrementAndGet();
+            log.info("Reloaded {} colors from {}", reloadedPalette.size(), colorCsvResource.getFilename());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Keeping the current colors, reloading failed: {}", e.getMessage());
+            return false;
+        }
     }
 
     // Load color mappings from the CSV file
-    private void loadColorMapping() {
+    private ColorPalette loadColorMapping() {
+        Map<Integer, String> colors = new LinkedHashMap<>();
         try (InputStream inputStream = colorCsvResource.getInputStream();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 String[] data = line.split(",");
                 if (data.length >= 2) {
                     int colorId = Integer.parseInt(data[0].trim());
                     String colorName = data[1].trim();
-                    colorMapping.put(colorId, colorName);
-                    reverseColorMapping.put(colorName.toLowerCase(), colorId); // To handle case-insensitive color name search
+                    if (colorId < 0 || colorId > ColorPalette.MAX_ID) {
+                        log.warn("Ignoring color {} with id {} outside 0 to {}", colorName, colorId, ColorPalette.MAX_ID);
+                        continue;
+                    }
+                    colors.put(colorId, colorName);
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | NumberFormatException e) {
             // Log an error and throw a runtime exception if there's an error reading the CSV file
             log.error("Error reading the CSV file for colors: {}", e.getMessage());
             throw new RuntimeException("Error reading the CSV file for colors.", e);
         }
+        return new ColorPalette(colors);
+    }
+
+    public Resource getColorCsvResource() {
+        return colorCsvResource;
+    }
+
+    // Get the current palette; use it for several lookups that must agree with each other
+    public ColorPalette getPalette() {
+        return palette;
+    }
+
+    // Get the number of successful reloads since startup
+    public long getPaletteVersion() {
+        return paletteVersion.get();
     }
 
     // Get the color mapping
     public Map<Integer, String> getColorMapping() {
-        return colorMapping;
+        return palette.asMap();
     }
 
     // Get color name by color ID
     public String getColorNameByColorId(int colorId) {
-        return colorMapping.getOrDefault(colorId, "");
+        return palette.getName(colorId);
     }
 
     // Get color ID by color name (case-insensitive)
     public Integer getColorIdByColorName(String colorName) {
-        return reverseColorMapping.getOrDefault(colorName.toLowerCase(), null);
+        int colorId = palette.getId(colorName);
+        if (colorId == ColorPalette.NO_COLOR) {
+            lookupMisses.increment();
+            return null;
+        }
+        return colorId;
+    }
+
+    // Get the number of color names that could not be resolved since startup
+    public long getLookupMisses() {
+        return lookupMisses.sum();
     }
 }
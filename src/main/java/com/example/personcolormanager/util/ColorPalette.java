@@ -0,0 +1,98 @@
+package com.example.personcolormanager.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable snapshot of the color mappings.
+// Ids map to names through a dense array; names map to ids through an open addressing table keyed
+// by the case-folded name, so lookups neither lower-case nor box the requested name.
+public final class ColorPalette {
+    public static final int NO_COLOR = -1;
+    // Largest color id; ids index arrays here and in the person store, so they are kept small
+    public static final int MAX_ID = 0xFFFF;
+
+    static final ColorPalette EMPTY = new ColorPalette(Collections.emptyMap());
+
+    private final String[] namesById;
+    private final String[] foldedNames;
+    private final int[] idsByFoldedName;
+    private final int mask;
+    private final Map<Integer, String> mapping;
+
+    ColorPalette(Map<Integer, String> colors) {
+        int maxId = colors.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        if (maxId > MAX_ID || colors.keySet().stream().anyMatch(colorId -> colorId < 0)) {
+            throw new IllegalArgumentException("Color ids must be between 0 and " + MAX_ID + ": " + colors.keySet());
+        }
+        this.namesById = new String[maxId + 1];
+        int capacity = Integer.highestOneBit(Math.max(colors.size(), 1) * 4 - 1) << 1;
+        this.foldedNames = new String[capacity];
+        this.idsByFoldedName = new int[capacity];
+        this.mask = capacity - 1;
+        for (Map.Entry<Integer, String> color : colors.entrySet()) {
+            namesById[color.getKey()] = color.getValue();
+            insert(color.getValue(), color.getKey());
+        }
+        this.mapping = Collections.unmodifiableMap(new LinkedHashMap<>(colors));
+    }
+
+    // Get the color name for the id, or an empty string if the id is unknown
+    public String getName(int colorId) {
+        if (colorId < 0 || colorId >= namesById.length) {
+            return "";
+        }
+        String name = namesById[colorId];
+        return name != null ? name : "";
+    }
+
+    // Get the color id for the name ignoring case, or NO_COLOR if the name is unknown
+    public int getId(String name) {
+        int slot = foldedHash(name) & mask;
+        while (true) {
+            String candidate = foldedNames[slot];
+            if (candidate == null) {
+                return NO_COLOR;
+            }
+            if (candidate.length() == name.length() && candidate.regionMatches(true, 0, name, 0, name.length())) {
+                return idsByFoldedName[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public Map<Integer, String> asMap() {
+        return mapping;
+    }
+
+    public int size() {
+        return mapping.size();
+    }
+
+    private void insert(String name, int colorId) {
+        int slot = foldedHash(name) & mask;
+        while (foldedNames[slot] != null) {
+            if (foldedNames[slot].equalsIgnoreCase(name)) {
+                break; // Later entries win, like the previous HashMap did
+            }
+            slot = (slot + 1) & mask;
+        }
+        foldedNames[slot] = name;
+        idsByFoldedName[slot] = colorId;
+    }
+
+    // Hash that is equal for strings that are equal ignoring case, using the same folding as regionMatches
+    private static int foldedHash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "ColorPalette" + Arrays.toString(namesById);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.personcolormanager.util;
+
+// Numeric form of zip codes for range queries
+public final class ZipCodes {
+    public static final int NO_ZIP = -1;
+
+    private static final int MAX_DIGITS = 9;
+
+    private ZipCodes() {
+    }
+
+    // The zip code as a number, e.g. 1067 for "01067", or NO_ZIP if it is not made of digits only
+    public static int parse(String zipCode) {
+        if (zipCode == null || zipCode.isEmpty() || zipCode.length() > MAX_DIGITS) {
+            return NO_ZIP;
+        }
+        int zip = 0;
+        for (int i = 0; i < zipCode.length(); i++) {
+            char c = zipCode.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_ZIP;
+            }
+            zip = zip * 10 + (c - '0');
+        }
+        return zip;
+    }
+}
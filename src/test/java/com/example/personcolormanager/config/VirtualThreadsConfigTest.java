@@ -0,0 +1,39 @@
+package com.example.personcolormanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.NestedExceptionUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void virtualThreadsBeforeJava21_FailStartup() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            assertNotNull(context.getStartupFailure());
+            Throwable cause = NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure());
+            assertInstanceOf(IllegalStateException.class, cause);
+            assertTrue(cause.getMessage().contains("needs Java 21"), cause.getMessage());
+        });
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadsOnJava21_Start() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void platformThreads_StartOnAnyJava() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false")
+                .run(context -> assertNull(context.getStartupFailure()));
+    }
+}
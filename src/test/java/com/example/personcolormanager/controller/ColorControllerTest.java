@@ -0,0 +1,38 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.ColorCount;
+import com.example.personcolormanager.service.ColorStatistics;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColorControllerTest {
+
+    @Test
+    void getColorStats_ListsEveryColor() {
+        ColorMappingUtil colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        ColorStatistics colorStatistics = new ColorStatistics();
+        colorStatistics.seed(Map.of(1, 2L, 4, 5L));
+        colorStatistics.increment(4);
+        colorStatistics.increment(9);
+
+        ResponseEntity<List<ColorCount>> response = new ColorController(colorStatistics, colorMappingUtil).getColorStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<ColorCount> stats = response.getBody();
+        assertNotNull(stats);
+        assertEquals(8, stats.size());
+        assertEquals(new ColorCount(1, "blau", 2), stats.get(0));
+        assertEquals(new ColorCount(2, "grün", 0), stats.get(1));
+        assertEquals(new ColorCount(4, "rot", 6), stats.get(3));
+        assertEquals(new ColorCount(9, "", 1), stats.get(7));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.DataLoad;
+import com.example.personcolormanager.service.DataLoadService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataLoadFilterTest {
+
+    private DataLoadService dataLoadService;
+    private DataLoadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        dataLoadService = mock(DataLoadService.class);
+        filter = new DataLoadFilter(dataLoadService, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void whileLoading_ApiAnswers503WithProgress() throws Exception {
+        DataLoad load = new DataLoad("persons");
+        load.setBytesTotal(1000);
+        load.addBytesRead(250);
+        when(dataLoadService.isReady()).thenReturn(false);
+        when(dataLoadService.getLoads()).thenReturn(List.of(load));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/persons"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("5", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"percent\":25"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void whileLoading_ActuatorIsServed() throws Exception {
+        when(dataLoadService.isReady()).thenReturn(false);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health/liveness"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void whenReady_ApiIsServed() throws Exception {
+        when(dataLoadService.isReady()).thenReturn(true);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/persons"), response, chain);
+
+        assertNotNull(chain.getRequest());
+    }
+}
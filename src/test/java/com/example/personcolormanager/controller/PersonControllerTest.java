@@ -1,16 +1,29 @@
 package com.example.personcolormanager.controller;
 
+import com.example.personcolormanager.model.BatchItemResult;
 import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import com.example.personcolormanager.ingest.ParallelCsvIngestionEngine;
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.service.ColorStatistics;
+import com.example.personcolormanager.service.CsvPersonServiceImpl;
 import com.example.personcolormanager.service.PersonService;
 import com.example.personcolormanager.util.ColorMappingUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,19 +32,29 @@ import static org.mockito.Mockito.*;
 
 class PersonControllerTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
     @Mock
     private PersonService personService;
 
-    @InjectMocks
     private PersonController personController;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
+        personController = controller(personService, mock(ColorMappingUtil.class));
+    }
+
+    private static PersonController controller(PersonService personService, ColorMappingUtil colorMappingUtil) {
+        PersonResponseCache responseCache = new PersonResponseCache(personService, colorMappingUtil, OBJECT_MAPPER, 1 << 20, true);
+        return new PersonController(personService, colorMappingUtil, responseCache);
     }
 
     @Test
-    void getAllPersons() {
+    void getAllPersons() throws Exception {
         List<Person> mockPersons = new ArrayList<>();
 
         mockPersons.add(new Person(1, "Adam", "rot"));
@@ -39,11 +62,67 @@ class PersonControllerTest {
 
         when(personService.getPersons()).thenReturn(mockPersons);
 
-        ResponseEntity<List<Person>> response = personController.getAllPersons();
+        ResponseEntity<?> response = personController.getAllPersons(null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(OBJECT_MAPPER.writeValueAsBytes(mockPersons), (byte[]) response.getBody());
+
+    }
+
+    @Test
+    void getPersonsPage() {
+        Person first = new Person();
+        first.setId(3L);
+        Person second = new Person();
+        second.setId(4L);
+        when(personService.getPersonsPage(2, 2)).thenReturn(List.of(first, second));
+
+        ResponseEntity<List<Person>> response = personController.getPersonsPage(2, 2);
+        ResponseEntity<List<Person>> invalidResponse = personController.getPersonsPage(2, 0);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(mockPersons, response.getBody());
+        assertEquals(List.of(first, second), response.getBody());
+        assertEquals("4", response.getHeaders().getFirst("X-Next-After-Id"));
+        assertEquals(HttpStatus.BAD_REQUEST, invalidResponse.getStatusCode());
+    }
 
+    @Test
+    void searchPersons() {
+        Person match = new Person();
+        match.setId(7L);
+        PersonSearchCriteria criteria = new PersonSearchCriteria("an", null, "ber", null);
+        when(personService.searchPersons(criteria, 0, 1_000)).thenReturn(List.of(match));
+
+        ResponseEntity<List<Person>> response = personController.searchPersons(criteria, 0, 5_000);
+        ResponseEntity<List<Person>> emptyCriteriaResponse = personController.searchPersons(new PersonSearchCriteria(), 0, 50);
+        ResponseEntity<List<Person>> invalidLimitResponse = personController.searchPersons(criteria, 0, 0);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(match), response.getBody());
+        assertEquals("7", response.getHeaders().getFirst("X-Next-After-Id"));
+        assertEquals(HttpStatus.BAD_REQUEST, emptyCriteriaResponse.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, invalidLimitResponse.getStatusCode());
+    }
+
+    @Test
+    void getPersonsByZipRange() {
+        Person match = new Person();
+        match.setId(9L);
+        ColorMappingUtil colorMappingUtil = mock(ColorMappingUtil.class);
+        when(colorMappingUtil.getColorIdByColorName("blau")).thenReturn(1);
+        when(colorMappingUtil.getColorIdByColorName("lila")).thenReturn(null);
+        PersonController personController = controller(personService, colorMappingUtil);
+        when(personService.getPersonsByZipRange(30_000, 39_999, "blau", 0, 50)).thenReturn(List.of(match));
+
+        ResponseEntity<List<Person>> response = personController.getPersonsByZipRange(30_000, 39_999, "blau", 0, 50);
+        ResponseEntity<List<Person>> unknownColorResponse = personController.getPersonsByZipRange(30_000, 39_999, "lila", 0, 50);
+        ResponseEntity<List<Person>> invalidRangeResponse = personController.getPersonsByZipRange(39_999, 30_000, null, 0, 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(match), response.getBody());
+        assertEquals("9", response.getHeaders().getFirst("X-Next-After-Id"));
+        assertEquals(HttpStatus.NOT_FOUND, unknownColorResponse.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, invalidRangeResponse.getStatusCode());
     }
 
     @Test
@@ -63,7 +142,13 @@ class PersonControllerTest {
     }
 
     @Test
-    void getPersonsByColor() {
+    void getPersonsByColor() throws Exception {
+        ColorMappingUtil colorMappingUtil = mock(ColorMappingUtil.class);
+        when(colorMappingUtil.getColorIdByColorName(anyString())).thenReturn(null);
+        when(colorMappingUtil.getColorIdByColorName("grau")).thenReturn(8);
+        when(colorMappingUtil.getColorIdByColorName("GRAU")).thenReturn(8);
+        when(colorMappingUtil.getColorIdByColorName("gelb")).thenReturn(6);
+        PersonController controller = controller(personService, colorMappingUtil);
         List<Person> mockPersons = new ArrayList<>();
         mockPersons.add(new Person(1, "Mark", "grau"));
         mockPersons.add(new Person(1, "Mark", "grau"));
@@ -71,13 +156,35 @@ class PersonControllerTest {
         when(personService.getPersonByColor("grau")).thenReturn(mockPersons);
         when(personService.getPersonByColor("gelb")).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<Person>> responseFoundPerson = personController.getPersonsByColor("grau");
-        ResponseEntity<List<Person>> responseNotFoundPerson = personController.getPersonsByColor("gelb");
+        ResponseEntity<?> responseFoundPerson = controller.getPersonsByColor("grau", null, null);
+        ResponseEntity<?> responseOtherSpelling = controller.getPersonsByColor("GRAU", null, null);
+        ResponseEntity<?> responseNotFoundPerson = controller.getPersonsByColor("gelb", null, null);
+        ResponseEntity<?> responseUnknownColor = controller.getPersonsByColor("lila", null, null);
 
         assertEquals(HttpStatus.OK, responseFoundPerson.getStatusCode());
-        assertEquals(mockPersons, responseFoundPerson.getBody());
+        assertArrayEquals(OBJECT_MAPPER.writeValueAsBytes(mockPersons), (byte[]) responseFoundPerson.getBody());
+        // Both spellings resolve to the same color id and so share one cache entry
+        assertArrayEquals((byte[]) responseFoundPerson.getBody(), (byte[]) responseOtherSpelling.getBody());
+        verify(personService, times(1)).getPersonByColor("grau");
+        verify(personService, never()).getPersonByColor("GRAU");
 
         assertEquals(HttpStatus.NOT_FOUND, responseNotFoundPerson.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, responseUnknownColor.getStatusCode());
+        verify(personService, never()).getPersonByColor("lila");
+    }
+
+    @Test
+    void getPersonsByColor_IfNoneMatchAny_IsNotModifiedOnlyIfPersonsExist() {
+        ColorMappingUtil colorMappingUtil = mock(ColorMappingUtil.class);
+        when(colorMappingUtil.getColorIdByColorName("grau")).thenReturn(8);
+        when(colorMappingUtil.getColorIdByColorName("gelb")).thenReturn(6);
+        PersonController controller = controller(personService, colorMappingUtil);
+        when(personService.getPersonByColor("grau")).thenReturn(List.of(new Person(1, "Mark", "grau")));
+        when(personService.getPersonByColor("gelb")).thenReturn(List.of());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getPersonsByColor("grau", "*", null).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.getPersonsByColor("gelb", "*", null).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.getPersonsByColor("lila", "*", null).getStatusCode());
     }
 
     @Test
@@ -97,7 +204,7 @@ class PersonControllerTest {
         PersonService personService = mock(PersonService.class);
         when(personService.addPerson(personToAdd)).thenReturn(savedPerson); // Mocking the behavior for addPerson
 
-        PersonController personController = new PersonController(personService, colorMappingUtil);
+        PersonController personController = controller(personService, colorMappingUtil);
 
         ResponseEntity<Person> response = personController.addPerson(personToAdd);
 
@@ -115,7 +222,7 @@ class PersonControllerTest {
         ColorMappingUtil colorMappingUtil = mock(ColorMappingUtil.class);
         when(colorMappingUtil.getColorIdByColorName("invalid_color")).thenReturn(null); // Mocking the behavior for getColorIdByColorName
 
-        PersonController personController = new PersonController(mock(PersonService.class), colorMappingUtil);
+        PersonController personController = controller(mock(PersonService.class), colorMappingUtil);
 
         ResponseEntity<Person> response = personController.addPerson(personToAdd);
 
@@ -123,4 +230,66 @@ class PersonControllerTest {
         verify(colorMappingUtil, times(1)).getColorIdByColorName("invalid_color"); // Verifying that getColorIdByColorName was called exactly once with the specified argument
         verifyNoInteractions(personService); // Verifying that no interaction with personService occurred
     }
-}
\ No newline at end of file
+
+    @Test
+    void addPersons_MixedColors_ReturnsResultPerItem() {
+        Person validPerson = new Person();
+        validPerson.setName("John");
+        validPerson.setColor("blau");
+        Person invalidPerson = new Person();
+        invalidPerson.setName("Jane");
+        invalidPerson.setColor("invalid_color");
+
+        Person savedPerson = new Person();
+        savedPerson.setId(1L);
+        savedPerson.setName("John");
+        savedPerson.setColor("blau");
+
+        ColorMappingUtil colorMappingUtil = mock(ColorMappingUtil.class);
+        when(colorMappingUtil.getColorIdByColorName("blau")).thenReturn(1);
+        when(colorMappingUtil.getColorIdByColorName("invalid_color")).thenReturn(null);
+
+        PersonService personService = mock(PersonService.class);
+        when(personService.addPersons(List.of(validPerson))).thenReturn(List.of(savedPerson));
+
+        PersonController personController = controller(personService, colorMappingUtil);
+
+        ResponseEntity<List<BatchItemResult>> response = personController.addPersons(List.of(invalidPerson, validPerson));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<BatchItemResult> results = response.getBody();
+        assertNotNull(results);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.CREATED.value(), results.get(1).getStatus());
+        assertEquals(savedPerson, results.get(1).getPerson());
+        assertEquals(1, validPerson.getColorId());
+        verify(personService, times(1)).addPersons(List.of(validPerson));
+    }
+
+    @Test
+    void addPersons_ColorIdOnly_CsvBackend_RejectsUnknownColorIds() throws Exception {
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        try (InputStream inputStream = new ClassPathResource("sample-input.csv").getInputStream()) {
+            Files.copy(inputStream, csvFile);
+        }
+        ColorMappingUtil colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        CsvPersonServiceImpl csvPersonService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil,
+                new ParallelCsvIngestionEngine(1), new ColorStatistics(), DurabilityMode.GROUP_FSYNC);
+        try {
+            List<Person> persons = OBJECT_MAPPER.readValue(
+                    "[{\"name\":\"Anna\",\"colorId\":0},{\"name\":\"Bert\",\"colorId\":2}]",
+                    new TypeReference<List<Person>>() { });
+
+            ResponseEntity<List<BatchItemResult>> response = controller(csvPersonService, colorMappingUtil).addPersons(persons);
+
+            List<BatchItemResult> results = response.getBody();
+            assertNotNull(results);
+            assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(0).getStatus());
+            assertEquals(HttpStatus.CREATED.value(), results.get(1).getStatus());
+            assertEquals("grün", csvPersonService.getPersonById(results.get(1).getPerson().getId()).getColor());
+        } finally {
+            csvPersonService.close();
+        }
+    }
+}
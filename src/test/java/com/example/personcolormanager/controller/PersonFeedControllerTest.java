@@ -0,0 +1,194 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonChangeFeed;
+import com.example.personcolormanager.service.PersonsAddedEvent;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PersonFeedControllerTest {
+    private static final Pattern EVENT = Pattern.compile("id:(\\S+)\\nevent:(\\S+)\\n");
+
+    private final ColorMappingUtil colorMappingUtil = mock(ColorMappingUtil.class);
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private PersonChangeFeed changeFeed;
+    private PersonFeedController controller;
+
+    private void setUp(int capacity) {
+        changeFeed = new PersonChangeFeed(capacity);
+        controller = new PersonFeedController(changeFeed, colorMappingUtil, 2, Duration.ofMinutes(1)) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(emitter -> emitter.release.countDown());
+        controller.shutdown();
+    }
+
+    @Test
+    void subscribe_SendsNewPersonsOfTheColor() throws InterruptedException {
+        setUp(16);
+        when(colorMappingUtil.getColorIdByColorName("blau")).thenReturn(1);
+        add(person(1, 2));
+        RecordingEmitter emitter = subscribe("blau", null);
+
+        add(person(2, 1), person(3, 2), person(4, 1));
+
+        assertEquals(List.of("person " + changeFeed.eventId(2), "person " + changeFeed.eventId(4)), emitter.await(2));
+        assertEquals(List.of(2L, 4L), emitter.personIds());
+    }
+
+    @Test
+    void subscribe_UnknownColorOrTooManySubscribers_IsRejected() {
+        setUp(16);
+        when(colorMappingUtil.getColorIdByColorName("grau")).thenReturn(null);
+        assertEquals(HttpStatus.NOT_FOUND, controller.subscribe("grau", null, null).getStatusCode());
+        controller.subscribe(null, null, null);
+        controller.subscribe(null, null, null);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, controller.subscribe(null, null, null).getStatusCode());
+    }
+
+    @Test
+    void subscribe_ResumesAfterLastEventId() throws InterruptedException {
+        setUp(16);
+        add(person(1, 1), person(2, 1), person(3, 1));
+
+        RecordingEmitter emitter = subscribe(null, changeFeed.eventId(1));
+
+        assertEquals(List.of("person " + changeFeed.eventId(2), "person " + changeFeed.eventId(3)), emitter.await(2));
+    }
+
+    @Test
+    void subscribe_IdOfEarlierRun_SendsResetAndRetainedPersons() throws InterruptedException {
+        setUp(16);
+        add(person(1, 1), person(2, 1), person(3, 1));
+
+        // The sequence exists in this run as well, but the token does not match
+        RecordingEmitter emitter = subscribe(null, "earlierrun-2");
+
+        assertEquals(List.of("reset " + changeFeed.eventId(0), "person " + changeFeed.eventId(1),
+                "person " + changeFeed.eventId(2), "person " + changeFeed.eventId(3)), emitter.await(4));
+    }
+
+    @Test
+    void subscribe_OverwrittenPosition_SendsResetFirst() throws InterruptedException {
+        setUp(4);
+        for (long id = 1; id <= 10; id++) {
+            add(person(id, 1));
+        }
+
+        RecordingEmitter emitter = subscribe(null, changeFeed.eventId(2));
+
+        List<String> events = emitter.await(5);
+        assertEquals("reset " + changeFeed.eventId(6), events.get(0));
+        assertEquals(List.of(7L, 8L, 9L, 10L), emitter.personIds());
+    }
+
+    @Test
+    void slowSubscriber_DelaysNeitherWritersNorOtherSubscribers() throws InterruptedException {
+        setUp(4);
+        RecordingEmitter slow = subscribe(null, null);
+        slow.blocked = true;
+        RecordingEmitter fast = subscribe(null, null);
+
+        add(person(1, 1));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        // While the slow subscriber hangs in send, persons are still added and reach the other subscriber
+        for (long id = 2; id <= 10; id++) {
+            add(person(id, 1));
+            assertEquals((int) id, fast.await((int) id).size());
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), fast.personIds());
+
+        // Once it catches up, the slow subscriber learns that it missed persons 2 to 6
+        slow.release.countDown();
+        List<String> events = slow.await(6);
+        assertEquals("person " + changeFeed.eventId(1), events.get(0));
+        assertEquals("reset " + changeFeed.eventId(6), events.get(1));
+        assertEquals(List.of(1L, 7L, 8L, 9L, 10L), slow.personIds());
+    }
+
+    private RecordingEmitter subscribe(String color, String lastEventId) {
+        int subscribed = emitters.size();
+        ResponseEntity<SseEmitter> response = controller.subscribe(color, null, lastEventId);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(subscribed + 1, emitters.size());
+        return emitters.get(subscribed);
+    }
+
+    private void add(Person... persons) {
+        changeFeed.onPersonsAdded(new PersonsAddedEvent(List.of(persons)));
+    }
+
+    private static Person person(long id, int colorId) {
+        return new Person(id, "Name" + id, "Last" + id, "10115", "Berlin", colorId == 1 ? "blau" : "grün", colorId);
+    }
+
+    // Records the events instead of writing them to a response; optionally blocks in send like a slow client
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final List<Long> personIds = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean blocked;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            if (blocked) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof Person person) {
+                    personIds.add(person.getId());
+                }
+                text.append(data.getData());
+            }
+            Matcher matcher = EVENT.matcher(text);
+            if (matcher.find()) {
+                events.add(matcher.group(2) + " " + matcher.group(1));
+            }
+        }
+
+        List<String> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            return new ArrayList<>(events);
+        }
+
+        List<Long> personIds() {
+            return new ArrayList<>(personIds);
+        }
+    }
+}
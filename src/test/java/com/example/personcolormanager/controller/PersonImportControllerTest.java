@@ -0,0 +1,72 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.ImportJob;
+import com.example.personcolormanager.service.PersonImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PersonImportControllerTest {
+
+    private static final String CSV = "Müller, Hans, 67742 Lauterecken, 1\n";
+
+    private final PersonImportService personImportService = mock(PersonImportService.class);
+    private final PersonImportController personImportController = new PersonImportController(personImportService);
+
+    @Test
+    void importMultipart_SpoolsUploadAndStartsJob() throws IOException {
+        ImportJob job = new ImportJob("job-1", "persons.csv", CSV.length());
+        when(personImportService.startImport(any(), eq("persons.csv"))).thenAnswer(invocation -> {
+            Path upload = invocation.getArgument(0);
+            assertEquals(CSV, Files.readString(upload, StandardCharsets.UTF_8));
+            Files.delete(upload);
+            return job;
+        });
+
+        ResponseEntity<ImportJob> response = personImportController.importMultipart(
+                new MockMultipartFile("file", "persons.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/persons/import/job-1", response.getHeaders().getLocation().toString());
+        assertSame(job, response.getBody());
+    }
+
+    @Test
+    void importBody_SpoolsUploadAndStartsJob() throws IOException {
+        ImportJob job = new ImportJob("job-2", "export.csv", CSV.length());
+        when(personImportService.startImport(any(), eq("export.csv"))).thenAnswer(invocation -> {
+            Path upload = invocation.getArgument(0);
+            assertEquals(CSV, Files.readString(upload, StandardCharsets.UTF_8));
+            Files.delete(upload);
+            return job;
+        });
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/persons/import");
+        request.setContent(CSV.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ImportJob> response = personImportController.importBody(request, "export.csv");
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertSame(job, response.getBody());
+    }
+
+    @Test
+    void getImportJob() {
+        ImportJob job = new ImportJob("job-3", "persons.csv", 10);
+        when(personImportService.getJob("job-3")).thenReturn(job);
+
+        assertSame(job, personImportController.getImportJob("job-3").getBody());
+        assertEquals(HttpStatus.NOT_FOUND, personImportController.getImportJob("unknown").getStatusCode());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonService;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PersonResponseCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PersonService personService;
+    private ColorMappingUtil colorMappingUtil;
+    private PersonResponseCache responseCache;
+
+    @BeforeEach
+    void setUp() {
+        personService = mock(PersonService.class);
+        colorMappingUtil = mock(ColorMappingUtil.class);
+        responseCache = new PersonResponseCache(personService, colorMappingUtil, objectMapper, 1 << 20, true);
+    }
+
+    @Test
+    void respond_MatchingETag_ReturnsNotModifiedWithoutQuerying() {
+        when(personService.getPersons()).thenReturn(persons(3));
+        ResponseEntity<?> first = responseCache.respond("all", null, null, personService::getPersons, false);
+        String eTag = first.getHeaders().getETag();
+        assertNotNull(eTag);
+        assertTrue(eTag.startsWith("W/\""));
+
+        ResponseEntity<?> second = responseCache.respond("all", eTag, null, personService::getPersons, false);
+        ResponseEntity<?> strongForm = responseCache.respond("all", "\"other\", " + eTag.substring(2), null,
+                personService::getPersons, false);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertEquals(eTag, second.getHeaders().getETag());
+        assertNull(second.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, strongForm.getStatusCode());
+        verify(personService, times(1)).getPersons();
+    }
+
+    @Test
+    void respond_SameVersion_SerializesOnce() throws Exception {
+        List<Person> persons = persons(3);
+        when(personService.getPersons()).thenReturn(persons);
+
+        ResponseEntity<?> first = responseCache.respond("all", null, null, personService::getPersons, false);
+        ResponseEntity<?> second = responseCache.respond("all", "W/\"stale\"", null, personService::getPersons, false);
+
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertArrayEquals(objectMapper.writeValueAsBytes(persons), (byte[]) second.getBody());
+        assertSame(first.getBody(), second.getBody());
+        verify(personService, times(1)).getPersons();
+    }
+
+    @Test
+    void respond_NewDataOrPaletteVersion_ChangesETagAndBody() throws Exception {
+        when(personService.getPersons()).thenReturn(persons(3));
+        String firstETag = responseCache.respond("all", null, null, personService::getPersons, false).getHeaders().getETag();
+
+        List<Person> morePersons = persons(4);
+        when(personService.getDataVersion()).thenReturn(1L);
+        when(personService.getPersons()).thenReturn(morePersons);
+        ResponseEntity<?> afterAdd = responseCache.respond("all", firstETag, null, personService::getPersons, false);
+
+        when(colorMappingUtil.getPaletteVersion()).thenReturn(1L);
+        ResponseEntity<?> afterReload = responseCache.respond("all", afterAdd.getHeaders().getETag(), null,
+                personService::getPersons, false);
+
+        assertEquals(HttpStatus.OK, afterAdd.getStatusCode());
+        assertNotEquals(firstETag, afterAdd.getHeaders().getETag());
+        assertArrayEquals(objectMapper.writeValueAsBytes(morePersons), (byte[]) afterAdd.getBody());
+        assertEquals(HttpStatus.OK, afterReload.getStatusCode());
+        assertNotEquals(afterAdd.getHeaders().getETag(), afterReload.getHeaders().getETag());
+    }
+
+    @Test
+    void respond_AcceptsGzip_ReturnsPreCompressedBody() throws Exception {
+        List<Person> persons = persons(100);
+        when(personService.getPersons()).thenReturn(persons);
+
+        ResponseEntity<?> gzipped = responseCache.respond("all", null, "deflate, gzip;q=0.8", personService::getPersons, false);
+        ResponseEntity<?> refused = responseCache.respond("all", null, "gzip;q=0, *", personService::getPersons, false);
+
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(objectMapper.writeValueAsBytes(persons), gunzip((byte[]) gzipped.getBody()));
+        assertNull(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(objectMapper.writeValueAsBytes(persons), (byte[]) refused.getBody());
+        assertEquals(gzipped.getHeaders().getETag(), refused.getHeaders().getETag());
+        verify(personService, times(1)).getPersons();
+    }
+
+    @Test
+    void respond_BodyLargerThanCache_HandsPersonsToConverterUncached() {
+        PersonResponseCache smallCache = new PersonResponseCache(personService, colorMappingUtil, objectMapper, 256, true);
+        List<Person> persons = persons(20);
+        when(personService.getPersons()).thenReturn(persons);
+
+        ResponseEntity<?> first = smallCache.respond("all", null, "gzip", personService::getPersons, false);
+        ResponseEntity<?> second = smallCache.respond("all", null, "gzip", personService::getPersons, false);
+        ResponseEntity<?> notModified = smallCache.respond("all", first.getHeaders().getETag(), null,
+                personService::getPersons, false);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertSame(persons, first.getBody());
+        assertSame(persons, second.getBody());
+        assertNull(first.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        verify(personService, times(2)).getPersons();
+    }
+
+    @Test
+    void respond_EmptyResultWhenNotFound_ReturnsNotFound() {
+        ResponseEntity<?> response = responseCache.respond("color/gelb", null, null, List::of, true);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void respond_IfNoneMatchAny_IsNotModifiedOnlyIfTheListingExists() {
+        assertEquals(HttpStatus.NOT_MODIFIED, responseCache.respond("all", "*", null, List::of, false).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, responseCache.respond("color/6", "*", null, List::of, true).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, responseCache.respond("color/1", "*", null,
+                () -> List.of(new Person(1, "Anna", "blau")), true).getStatusCode());
+    }
+
+    @Test
+    void acceptsGzip_ParsesQualities() {
+        assertTrue(PersonResponseCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(PersonResponseCache.acceptsGzip("*"));
+        assertFalse(PersonResponseCache.acceptsGzip(null));
+        assertFalse(PersonResponseCache.acceptsGzip("br"));
+        assertFalse(PersonResponseCache.acceptsGzip("gzip;q=0"));
+        assertFalse(PersonResponseCache.acceptsGzip("*;q=1, gzip;q=0.0"));
+    }
+
+    private static List<Person> persons(int count) {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            persons.add(new Person(i, "Hans" + i, "Müller", "12345", "Berlin", "blau", 1));
+        }
+        return persons;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
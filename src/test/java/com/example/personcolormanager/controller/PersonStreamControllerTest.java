@@ -0,0 +1,95 @@
+package com.example.personcolormanager.controller;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.PersonService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class PersonStreamControllerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final PersonService personService = mock(PersonService.class);
+    private final PersonStreamController controller = new PersonStreamController(personService, OBJECT_MAPPER);
+
+    @Test
+    void streamAllPersons_WritesOneJsonObjectPerLine() throws IOException {
+        // More persons than are written between two flushes
+        List<Person> persons = new ArrayList<>();
+        for (int id = 1; id <= 600; id++) {
+            persons.add(new Person(id, "Name" + id, "Last" + id, "10115", "Berlin", "blau", 1));
+        }
+        streams(persons, new AtomicInteger());
+
+        ResponseEntity<StreamingResponseBody> response = controller.streamAllPersons();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        String body = output.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("}\n"), body);
+        String[] lines = body.split("\n");
+        assertEquals(persons.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(OBJECT_MAPPER.writeValueAsString(persons.get(i)), lines[i]);
+        }
+    }
+
+    @Test
+    void streamAllPersons_ClientGone_StopsReading() {
+        List<Person> persons = new ArrayList<>();
+        for (int id = 1; id <= 10_000; id++) {
+            persons.add(new Person(id, "Name" + id, "Last" + id, "10115", "Berlin", "blau", 1));
+        }
+        AtomicInteger passed = new AtomicInteger();
+        streams(persons, passed);
+        OutputStream closedConnection = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        StreamingResponseBody body = controller.streamAllPersons().getBody();
+        IOException e = assertThrows(IOException.class, () -> body.writeTo(closedConnection));
+
+        assertEquals("Broken pipe", e.getMessage());
+        assertTrue(passed.get() < persons.size(), passed + " persons were read");
+    }
+
+    // Passes the persons to the consumer of streamPersons and counts the persons it accepted
+    private void streams(List<Person> persons, AtomicInteger passed) {
+        doAnswer(invocation -> {
+            Consumer<Person> consumer = invocation.getArgument(0);
+            for (Person person : persons) {
+                consumer.accept(person);
+                passed.incrementAndGet();
+            }
+            return null;
+        }).when(personService).streamPersons(any());
+    }
+}
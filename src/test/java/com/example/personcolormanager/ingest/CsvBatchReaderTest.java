@@ -0,0 +1,63 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvBatchReaderTest {
+
+    @Test
+    void nextBatch_MatchesSequentialEngine() throws IOException {
+        StringBuilder csv = new StringBuilder("﻿Müller, Hans, 67742 Lauterecken, 1\r\n\n");
+        for (int i = 0; i < 5_000; i++) {
+            csv.append("Last").append(i).append(", Name").append(i).append(", ")
+                    .append(10000 + i).append(" Stadt ").append(i % 13).append(", ").append(i % 7 + 1).append('\n');
+            if (i % 1000 == 0) {
+                csv.append("malformed line ").append(i).append('\n');
+            }
+        }
+        // One line longer than the reader's buffer, and a last line without newline
+        csv.append("Long, Line, 12345 ").append("x".repeat(100_000)).append(", 3\n");
+        csv.append("Klaussen, Klaus, 43246 Hierach, 2");
+        byte[] content = csv.toString().getBytes(StandardCharsets.UTF_8);
+        IngestionResult expected = new SequentialCsvIngestionEngine().ingest(new ByteArrayResource(content));
+
+        for (int batchSize : new int[]{1, 7, 1_000, 100_000}) {
+            List<Person> persons = new ArrayList<>();
+            try (CsvBatchReader reader = new CsvBatchReader(new ByteArrayInputStream(content), batchSize)) {
+                List<Person> batch;
+                while (!(batch = reader.nextBatch()).isEmpty()) {
+                    assertTrue(batch.size() <= batchSize, "batch of " + batch.size());
+                    persons.addAll(batch);
+                }
+                assertEquals(expected.getMalformedRows(), reader.getMalformedRows());
+                assertEquals(expected.getMalformedSamples(), reader.getMalformedSamples());
+                assertEquals(content.length, reader.getBytesRead());
+            }
+            assertEquals(describe(expected.getPersons()), describe(persons), "batch size " + batchSize);
+        }
+    }
+
+    @Test
+    void nextBatch_EmptyInput() throws IOException {
+        try (CsvBatchReader reader = new CsvBatchReader(new ByteArrayInputStream(new byte[0]), 10)) {
+            assertEquals(List.of(), reader.nextBatch());
+            assertEquals(List.of(), reader.nextBatch());
+        }
+    }
+
+    private static List<String> describe(List<Person> persons) {
+        return persons.stream()
+                .map(person -> person.getName() + "|" + person.getLastName() + "|" + person.getZipCode() + "|"
+                        + person.getCity() + "|" + person.getColorId())
+                .toList();
+    }
+}
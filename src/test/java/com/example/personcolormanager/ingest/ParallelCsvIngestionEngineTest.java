@@ -0,0 +1,100 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvIngestionEngineTest {
+
+    private static final String CSV = "\uFEFFMüller, Hans, 67742 Lauterecken, 1\n"
+            + "Andersson, Anders, 32132 Schweden - ☀, 2\r\n"
+            + "Bart, Bertram,12313 Wasweißich, 1\n"
+            + "\n"
+            + "Broken, Row\n"
+            + "Trailing, Tokens, 11111 Irgendwo, 3 extra tokens\n"
+            + "Invalid, Color, 22222 Nirgendwo, blau\n"
+            + "Extra, Column, 33333, 4,17\n"
+            + "Stale, Id, 44444 Dort, 1, 3\n"
+            + "Text, Column, 55555 Hier, 2, Notiz, 99\n"
+            + "Klaussen, Klaus, 43246 Hierach, 2";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void ingest_HandlesFormatQuirks() throws IOException {
+        IngestionResult result = new ParallelCsvIngestionEngine(4, 16).ingest(writeCsv(CSV));
+
+        List<Person> persons = result.getPersons();
+        assertEquals(8, persons.size());
+        assertEquals(2, result.getMalformedRows());
+        assertEquals(List.of("Broken, Row", "Invalid, Color, 22222 Nirgendwo, blau"), result.getMalformedSamples());
+
+        assertPerson(persons.get(0), 1, "Hans", "Müller", "67742", "Lauterecken", 1);
+        assertPerson(persons.get(1), 2, "Anders", "Andersson", "32132", "Schweden - ☀", 2);
+        assertPerson(persons.get(2), 3, "Bertram", "Bart", "12313", "Wasweißich", 1);
+        assertPerson(persons.get(3), 4, "Tokens", "Trailing", "11111", "Irgendwo", 3);
+        // Rows keep the id in their fifth column; one that does not ascend or is no number is replaced
+        assertPerson(persons.get(4), 17, "Column", "Extra", "33333", "", 4);
+        assertPerson(persons.get(5), 18, "Id", "Stale", "44444", "Dort", 1);
+        assertPerson(persons.get(6), 19, "Column", "Text", "55555", "Hier", 2);
+        assertPerson(persons.get(7), 20, "Klaus", "Klaussen", "43246", "Hierach", 2);
+    }
+
+    @Test
+    void ingest_MatchesSequentialEngine() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            csv.append("Last").append(i).append(", Name").append(i).append(", ")
+                    .append(10000 + i).append(" Stadt ").append(i % 13).append(", ").append(i % 7 + 1).append('\n');
+            if (i % 1000 == 0) {
+                csv.append("malformed line ").append(i).append('\n');
+            }
+        }
+        String content = csv.toString();
+
+        AtomicLong parallelProgress = new AtomicLong();
+        AtomicLong sequentialProgress = new AtomicLong();
+        IngestionResult parallel = new ParallelCsvIngestionEngine(4, 4096).ingest(writeCsv(content), parallelProgress::addAndGet);
+        IngestionResult sequential = new SequentialCsvIngestionEngine()
+                .ingest(new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)), sequentialProgress::addAndGet);
+
+        assertEquals(10_000, parallel.getPersons().size());
+        assertEquals(10, parallel.getMalformedRows());
+        assertEquals(sequential.getMalformedRows(), parallel.getMalformedRows());
+        assertEquals(sequential.getBytesRead(), parallel.getBytesRead());
+        assertEquals(parallel.getBytesRead(), parallelProgress.get());
+        assertEquals(sequential.getBytesRead(), sequentialProgress.get());
+        for (int i = 0; i < sequential.getPersons().size(); i++) {
+            Person expected = sequential.getPersons().get(i);
+            assertPerson(parallel.getPersons().get(i), expected.getId(), expected.getName(), expected.getLastName(),
+                    expected.getZipCode(), expected.getCity(), expected.getColorId());
+        }
+    }
+
+    private FileSystemResource writeCsv(String content) throws IOException {
+        Path csvFile = tempDir.resolve("input.csv");
+        Files.writeString(csvFile, content, StandardCharsets.UTF_8);
+        return new FileSystemResource(csvFile);
+    }
+
+    private static void assertPerson(Person person, long id, String name, String lastName, String zipCode, String city, int colorId) {
+        assertEquals(id, person.getId());
+        assertEquals(name, person.getName());
+        assertEquals(lastName, person.getLastName());
+        assertEquals(zipCode, person.getZipCode());
+        assertEquals(city, person.getCity());
+        assertEquals(colorId, person.getColorId());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.personcolormanager.ingest;
+
+import com.example.personcolormanager.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotFile;
+    private List<Person> persons;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshotFile = tempDir.resolve("sample-input.csv.snapshot");
+        persons = List.of(
+                new Person(1, "Hans", "Müller", "67742", "Lauterecken", null, 1),
+                new Person(2, "Anders", "Andersson", "32132", "Schweden - ☀", null, 2),
+                new Person(7, null, "Ohne Vorname", "", "x".repeat(5_000), null, 0));
+        PersonSnapshotFile.write(snapshotFile, 359, 1_700_000_000_000L, persons, 3);
+    }
+
+    @Test
+    void read_ReturnsWrittenPersons() throws IOException {
+        IngestionResult result = PersonSnapshotFile.read(snapshotFile, 359, 1_700_000_000_000L);
+
+        assertEquals(describe(persons), describe(result.getPersons()));
+        assertEquals(3, result.getMalformedRows());
+        assertEquals(Files.size(snapshotFile), result.getBytesRead());
+    }
+
+    @Test
+    void read_ChangedCsvOrMissingSnapshot_ReturnsNull() throws IOException {
+        assertNull(PersonSnapshotFile.read(snapshotFile, 400, 1_700_000_000_000L));
+        assertNull(PersonSnapshotFile.read(snapshotFile, 359, 1_700_000_000_001L));
+        assertNull(PersonSnapshotFile.read(tempDir.resolve("missing.snapshot"), 359, 1_700_000_000_000L));
+    }
+
+    @Test
+    void read_DamagedSnapshot_Throws() throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'?'}), 60);
+        }
+        assertThrows(IOException.class, () -> PersonSnapshotFile.read(snapshotFile, 359, 1_700_000_000_000L));
+
+        Files.write(snapshotFile, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> PersonSnapshotFile.read(snapshotFile, 359, 1_700_000_000_000L));
+    }
+
+    @Test
+    void read_DamagedCounts_Throws() throws IOException {
+        byte[] written = Files.readAllBytes(snapshotFile);
+        // The string count is at offset 32 and the person count at 36, in the header outside the checksum
+        for (int offset : new int[]{32, 36}) {
+            for (int count : new int[]{Integer.MAX_VALUE, 50_000_000, -1, ByteBuffer.wrap(written).getInt(offset) + 1}) {
+                byte[] damaged = written.clone();
+                ByteBuffer.wrap(damaged).putInt(offset, count);
+                Files.write(snapshotFile, damaged);
+                assertThrows(IOException.class, () -> PersonSnapshotFile.read(snapshotFile, 359, 1_700_000_000_000L),
+                        "count " + count + " at offset " + offset);
+            }
+        }
+    }
+
+    private static List<String> describe(List<Person> persons) {
+        return persons.stream()
+                .map(p -> p.getId() + "|" + p.getName() + "|" + p.getLastName() + "|" + p.getZipCode() + "|" + p.getCity() + "|" + p.getColorId())
+                .toList();
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.personcolormanager.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonAppendLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void append_ConcurrentWritersDoNotInterleave() throws Exception {
+        Path logFile = tempDir.resolve("persons.csv");
+        AtomicInteger written = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (PersonAppendLog appendLog = new PersonAppendLog(logFile, DurabilityMode.GROUP_FSYNC)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                String line = "Last" + i + ",Name" + i + ",12345 Stadt," + (i % 7 + 1) + "," + i;
+                futures.add(CompletableFuture.supplyAsync(() -> appendLog.append(line, written::incrementAndGet), executor)
+                        .thenCompose(future -> future));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        assertEquals(2_000, lines.size());
+        assertEquals(2_000, written.get());
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            expected.add("Last" + i + ",Name" + i + ",12345 Stadt," + (i % 7 + 1) + "," + i);
+        }
+        assertEquals(expected, new HashSet<>(lines));
+    }
+
+    @Test
+    void append_AsyncModeAppliesImmediately() throws IOException {
+        Path logFile = tempDir.resolve("persons.csv");
+        AtomicInteger written = new AtomicInteger();
+        try (PersonAppendLog appendLog = new PersonAppendLog(logFile, DurabilityMode.ASYNC)) {
+            CompletableFuture<Void> future = appendLog.append("Müller,Hans,67742 Lauterecken,1,1", written::incrementAndGet);
+            assertTrue(future.isDone());
+            assertEquals(1, written.get());
+        }
+        assertEquals(List.of("Müller,Hans,67742 Lauterecken,1,1"), Files.readAllLines(logFile, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void append_AfterCloseFails() throws IOException {
+        PersonAppendLog appendLog = new PersonAppendLog(tempDir.resolve("persons.csv"), DurabilityMode.FSYNC_EACH);
+        appendLog.close();
+        assertTrue(appendLog.append("line", () -> { }).isCompletedExceptionally());
+    }
+
+    @Test
+    void append_PartiallyWrittenGroupIsCutOff() throws Exception {
+        Path logFile = tempDir.resolve("persons.csv");
+        FailingFileChannel channel = new FailingFileChannel(logFile);
+        try (PersonAppendLog appendLog = new PersonAppendLog(channel, DurabilityMode.FSYNC_EACH)) {
+            appendLog.append("Müller,Hans,67742 Lauterecken,1,1", () -> { }).join();
+            channel.failWrite = true;
+            CompletableFuture<Void> failed = appendLog.append("Petersen,Peter,18439 Stralsund,2,2", () -> { });
+            assertThrows(CompletionException.class, failed::join);
+            appendLog.append("Johnson,Johnny,88888 made up,3,3", () -> { }).join();
+        }
+        assertEquals(List.of("Müller,Hans,67742 Lauterecken,1,1", "Johnson,Johnny,88888 made up,3,3"),
+                Files.readAllLines(logFile, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void append_GroupWhoseForceFailedIsCutOff() throws Exception {
+        Path logFile = tempDir.resolve("persons.csv");
+        FailingFileChannel channel = new FailingFileChannel(logFile);
+        AtomicInteger written = new AtomicInteger();
+        try (PersonAppendLog appendLog = new PersonAppendLog(channel, DurabilityMode.FSYNC_EACH)) {
+            appendLog.append("Müller,Hans,67742 Lauterecken,1,1", written::incrementAndGet).join();
+            channel.failForce = true;
+            assertThrows(CompletionException.class, () -> appendLog.append("Petersen,Peter,18439 Stralsund,2,2", written::incrementAndGet).join());
+            appendLog.append("Johnson,Johnny,88888 made up,3,3", written::incrementAndGet).join();
+        }
+        assertEquals(2, written.get());
+        assertEquals(List.of("Müller,Hans,67742 Lauterecken,1,1", "Johnson,Johnny,88888 made up,3,3"),
+                Files.readAllLines(logFile, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void recover_TruncatesTornLastLine() throws IOException {
+        Path logFile = tempDir.resolve("persons.csv");
+        Files.writeString(logFile, "Müller, Hans, 67742 Lauterecken, 1\nPetersen, Pe", StandardCharsets.UTF_8);
+
+        PersonAppendLog.recover(logFile, line -> line.split(",").length >= 4);
+
+        assertEquals("Müller, Hans, 67742 Lauterecken, 1\n", Files.readString(logFile, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void recover_TerminatesCompleteLastLine() throws IOException {
+        Path logFile = tempDir.resolve("persons.csv");
+        Files.writeString(logFile, "Müller, Hans, 67742 Lauterecken, 1\nKlaussen, Klaus, 43246 Hierach, 2", StandardCharsets.UTF_8);
+
+        PersonAppendLog.recover(logFile, line -> line.split(",").length >= 4);
+
+        assertEquals("Müller, Hans, 67742 Lauterecken, 1\nKlaussen, Klaus, 43246 Hierach, 2\n",
+                Files.readString(logFile, StandardCharsets.UTF_8));
+    }
+
+    // Appends to the file, but can be told to fail the next write halfway through or the next force
+    private static final class FailingFileChannel extends FileChannel {
+        private final FileChannel file;
+        volatile boolean failWrite;
+        volatile boolean failForce;
+
+        FailingFileChannel(Path path) throws IOException {
+            this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            if (failWrite) {
+                failWrite = false;
+                ByteBuffer source = sources[offset];
+                file.write(ByteBuffer.wrap(source.array(), source.position(), source.remaining() / 2));
+                throw new IOException("No space left on device");
+            }
+            return file.write(sources, offset, length);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) {
+                failForce = false;
+                throw new IOException("Input/output error");
+            }
+            file.force(metaData);
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            return file.write(source);
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            return file.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+            return file.read(destinations, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return file.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            file.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return file.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            file.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return file.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            return file.transferFrom(source, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException {
+            return file.read(destination, position);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            return file.write(source, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return file.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return file.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return file.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            file.close();
+        }
+    }
+}
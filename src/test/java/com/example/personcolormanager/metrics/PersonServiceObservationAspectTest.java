@@ -0,0 +1,65 @@
+package com.example.personcolormanager.metrics;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.service.CachingPersonService;
+import com.example.personcolormanager.service.PersonService;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PersonServiceObservationAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PersonService delegate;
+    private PersonService personService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+
+        ColorMappingUtil colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        delegate = mock(PersonService.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+                new CachingPersonService(delegate, colorMappingUtil, 100, Duration.ofMinutes(5)));
+        proxyFactory.addAspect(new PersonServiceObservationAspect(observationRegistry));
+        personService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void observe_RecordsTimerPerMethodAndBackend() {
+        when(delegate.getPersonById(1)).thenReturn(new Person(1, "Hans", "Müller", "67742", "Lauterecken", "blau", 1));
+
+        personService.getPersonById(1);
+        personService.getPersonById(1);
+        personService.countPersonsByColor("blau");
+
+        Timer byId = meterRegistry.get("person.service").tags("method", "getPersonById", "backend", "cache").timer();
+        assertEquals(2, byId.count());
+        Timer count = meterRegistry.get("person.service").tags("method", "countPersonsByColor", "backend", "cache").timer();
+        assertEquals(1, count.count());
+    }
+
+    @Test
+    void observe_TagsErrors() {
+        when(delegate.getPersons()).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> personService.getPersons());
+
+        Timer timer = meterRegistry.get("person.service").tags("method", "getPersons", "error", "IllegalStateException").timer();
+        assertEquals(1, timer.count());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.personcolormanager.repository;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.personcolormanager.repository.RecordingStatementInspector")
+class PersonRepositoryTest {
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Statements are recorded across the whole context, so forget those of earlier tests
+        RecordingStatementInspector.clear();
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            persons.add(new Person(0, "Name" + i, "Last" + i, "1000" + i, "Stadt", i % 4 == 0 ? "blau" : "rot", i % 4 == 0 ? 1 : 4));
+        }
+        personRepository.saveAllAndFlush(persons);
+    }
+
+    @Test
+    void findByColorId_ReturnsMatchingPersons() {
+        List<Person> persons = personRepository.findByColorId(1);
+
+        assertEquals(25, persons.size());
+        assertTrue(persons.stream().allMatch(person -> person.getColorId() == 1));
+        assertEquals(75, personRepository.countByColorId(4));
+        assertEquals(0, personRepository.countByColorId(7));
+    }
+
+    @Test
+    void colorIdQueries_UseIndex() {
+        personRepository.findByColorId(1);
+        String selectPlan = explainLastQuery(1);
+        personRepository.countByColorId(1);
+        String countPlan = explainLastQuery(1);
+
+        assertTrue(selectPlan.contains("IDX_PERSONS_COLOR_ID"), selectPlan);
+        assertTrue(countPlan.contains("IDX_PERSONS_COLOR_ID"), countPlan);
+    }
+
+    @Test
+    void findBy_PrefixSpecification_MatchesIgnoringCaseInIdOrder() {
+        Person wildcard = new Person(0, "50%_Rabatt", "Angebot", "99999", "berlin", "rot", 4);
+        personRepository.saveAndFlush(wildcard);
+        long firstId = personRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(1)).get(0).getId();
+
+        List<Person> persons = personRepository.findBy(
+                PersonSpecifications.matchesPrefixes(new PersonSearchCriteria("NAME1", "last", "stadt", null), firstId),
+                query -> query.sortBy(Sort.by("id")).limit(5).all());
+        List<Person> wildcards = personRepository.findBy(
+                PersonSpecifications.matchesPrefixes(new PersonSearchCriteria("50%_", null, "BER", null), 0),
+                query -> query.sortBy(Sort.by("id")).all());
+        List<Person> escaped = personRepository.findBy(
+                PersonSpecifications.matchesPrefixes(new PersonSearchCriteria("5_", null, null, null), 0),
+                query -> query.sortBy(Sort.by("id")).all());
+
+        assertEquals(List.of("Name1", "Name10", "Name11", "Name12", "Name13"), persons.stream().map(Person::getName).toList());
+        assertEquals(List.of(wildcard.getId()), wildcards.stream().map(Person::getId).toList());
+        assertEquals(List.of(), escaped);
+    }
+
+    @Test
+    void searchKeyQueries_UseIndex() {
+        personRepository.findBy(PersonSpecifications.matchesPrefixes(new PersonSearchCriteria("name1", null, null, null), 0),
+                query -> query.sortBy(Sort.by("id")).limit(50).all());
+        String namePlan = explainLastQuery(0L, 0L, "name1%", 50);
+        personRepository.findBy(PersonSpecifications.matchesPrefixes(new PersonSearchCriteria(null, null, "sta", null), 4711),
+                query -> query.sortBy(Sort.by("id")).limit(50).all());
+        String cityPlan = explainLastQuery(0L, 4711L, "sta%", 50);
+
+        assertTrue(namePlan.contains("IDX_PERSONS_NAME_KEY"), namePlan);
+        assertTrue(cityPlan.contains("IDX_PERSONS_CITY_KEY"), cityPlan);
+    }
+
+    @Test
+    void findBy_ZipRangeSpecification_MatchesNumericZipAndColor() {
+        // Zip codes are "1000" + i, so persons 0 to 9 have 10000 to 10009 and persons 10 to 99 have 100010 to 100099
+        List<Person> persons = personRepository.findBy(PersonSpecifications.inZipRange(10_000, 10_009, null, 0),
+                query -> query.sortBy(Sort.by("id")).all());
+        List<Person> bluePersons = personRepository.findBy(PersonSpecifications.inZipRange(10_000, 100_099, 1, 0),
+                query -> query.sortBy(Sort.by("id")).limit(10).all());
+
+        assertEquals(List.of("10000", "10001", "10002", "10003", "10004", "10005", "10006", "10007", "10008", "10009"),
+                persons.stream().map(Person::getZipCode).toList());
+        assertEquals(10, bluePersons.size());
+        assertTrue(bluePersons.stream().allMatch(person -> person.getColorId() == 1));
+    }
+
+    @Test
+    void zipRangeQueries_UseIndex() {
+        personRepository.findBy(PersonSpecifications.inZipRange(30_000, 39_999, null, 0),
+                query -> query.sortBy(Sort.by("id")).limit(50).all());
+        String rangePlan = explainLastQuery(0L, 0L, 30_000, 39_999, 50);
+        personRepository.findBy(PersonSpecifications.inZipRange(30_000, 39_999, 1, 0),
+                query -> query.sortBy(Sort.by("id")).limit(50).all());
+        String colorRangePlan = explainLastQuery(0L, 0L, 30_000, 39_999, 1, 50);
+
+        assertTrue(rangePlan.contains("IDX_PERSONS_ZIP_NUMBER"), rangePlan);
+        assertTrue(colorRangePlan.contains("IDX_PERSONS_COLOR_ID_ZIP_NUMBER"), colorRangePlan);
+    }
+
+    // Plan of the last query Hibernate sent, with the parameters bound in the order they appear in it
+    private String explainLastQuery(Object... parameters) {
+        String sql = RecordingStatementInspector.last("select");
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(), sql);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters).toUpperCase();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.personcolormanager.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Remembers the SQL Hibernate sends, so tests can look at the plans of the statements actually run
+public class RecordingStatementInspector implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        statements.clear();
+    }
+
+    // The last statement sent that starts with the given keyword, e.g. "select"
+    static String last(String keyword) {
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            String sql = statements.get(i);
+            if (sql.regionMatches(true, 0, keyword, 0, keyword.length())) {
+                return sql;
+            }
+        }
+        throw new IllegalStateException("No " + keyword + " statement was sent");
+    }
+}
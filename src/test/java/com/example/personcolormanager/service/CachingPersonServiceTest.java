@@ -0,0 +1,119 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingPersonServiceTest {
+
+    private PersonService delegate;
+    private CachingPersonService cachingPersonService;
+
+    @BeforeEach
+    void setUp() {
+        ColorMappingUtil colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        delegate = mock(PersonService.class);
+        cachingPersonService = new CachingPersonService(delegate, colorMappingUtil, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void getPersonById_SecondLookupIsServedFromCache() {
+        Person person = new Person(1, "Hans", "Müller", "67742", "Lauterecken", "blau", 1);
+        when(delegate.getPersonById(1)).thenReturn(person);
+
+        assertSame(person, cachingPersonService.getPersonById(1));
+        assertSame(person, cachingPersonService.getPersonById(1));
+        assertNull(cachingPersonService.getPersonById(2));
+        assertNull(cachingPersonService.getPersonById(2));
+
+        verify(delegate, times(1)).getPersonById(1);
+        verify(delegate, times(1)).getPersonById(2);
+        assertEquals(2, cachingPersonService.getCacheStats().get("byId").hitCount());
+        assertEquals(2, cachingPersonService.getCacheStats().get("byId").missCount());
+    }
+
+    @Test
+    void getPersonByColor_SpellingsShareOneEntry() {
+        Person person = new Person(1, "Hans", "Müller", "67742", "Lauterecken", "blau", 1);
+        when(delegate.getPersonByColor(anyString())).thenReturn(List.of(person));
+
+        assertEquals(List.of(person), cachingPersonService.getPersonByColor("blau"));
+        assertEquals(List.of(person), cachingPersonService.getPersonByColor("BLAU"));
+        assertTrue(cachingPersonService.getPersonByColor("schwarz").isEmpty());
+
+        verify(delegate, times(1)).getPersonByColor(anyString());
+    }
+
+    @Test
+    void addPerson_InvalidatesAffectedEntries() {
+        Person existing = new Person(1, "Hans", "Müller", "67742", "Lauterecken", "blau", 1);
+        Person added = new Person(2, "Peter", "Petersen", "18439", "Stralsund", "blau", 1);
+        Person other = new Person(3, "Johnny", "Johnson", "88888", "made up", "rot", 4);
+        when(delegate.getPersonById(2)).thenReturn(null, added);
+        when(delegate.getPersonByColor("blau")).thenReturn(List.of(existing)).thenReturn(List.of(existing, added));
+        when(delegate.getPersonByColor("rot")).thenReturn(List.of(other));
+        when(delegate.countPersonsByColor("blau")).thenReturn(1L, 2L);
+        when(delegate.addPerson(added)).thenReturn(added);
+
+        assertNull(cachingPersonService.getPersonById(2));
+        assertEquals(1, cachingPersonService.getPersonByColor("blau").size());
+        assertEquals(1, cachingPersonService.getPersonByColor("rot").size());
+        assertEquals(1, cachingPersonService.countPersonsByColor("blau"));
+
+        cachingPersonService.addPerson(added);
+
+        assertSame(added, cachingPersonService.getPersonById(2));
+        assertEquals(2, cachingPersonService.getPersonByColor("blau").size());
+        assertEquals(2, cachingPersonService.countPersonsByColor("blau"));
+        assertEquals(1, cachingPersonService.getPersonByColor("rot").size());
+        verify(delegate, times(1)).getPersonByColor("rot");
+    }
+
+    @Test
+    void cache_IsBoundedInSize() {
+        CachingPersonService smallCache = new CachingPersonService(delegate,
+                new ColorMappingUtil(new ClassPathResource("colors.csv")), 10, Duration.ofMinutes(5));
+        for (long id = 0; id < 1_000; id++) {
+            smallCache.getPersonById(id);
+        }
+        smallCache.getCaches().get("byId").cleanUp();
+
+        assertTrue(smallCache.getCaches().get("byId").estimatedSize() <= 10);
+        assertTrue(smallCache.getCacheStats().get("byId").evictionCount() > 0);
+    }
+
+    @Test
+    void colorCache_IsBoundedByNumberOfPersons() {
+        ColorMappingUtil colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        CachingPersonService smallCache = new CachingPersonService(delegate, colorMappingUtil, 10, Duration.ofMinutes(5));
+        List<Person> many = new ArrayList<>();
+        for (long id = 1; id <= 11; id++) {
+            many.add(new Person(id, "Name" + id, "Last" + id, "10115", "Berlin", "grün", 3));
+        }
+        when(delegate.getPersonByColor("blau")).thenReturn(many.subList(0, 4));
+        when(delegate.getPersonByColor("grün")).thenReturn(many);
+
+        // Four persons fit into the budget of ten; eleven do not, so that list is returned but not kept
+        assertEquals(4, smallCache.getPersonByColor("blau").size());
+        assertEquals(11, smallCache.getPersonByColor("grün").size());
+        smallCache.getCaches().get("byColor").cleanUp();
+        assertEquals(4, smallCache.getPersonByColor("blau").size());
+        assertEquals(11, smallCache.getPersonByColor("grün").size());
+        smallCache.getCaches().get("byColor").cleanUp();
+
+        assertEquals(1, smallCache.getCaches().get("byColor").estimatedSize());
+        verify(delegate, times(1)).getPersonByColor("blau");
+        verify(delegate, times(2)).getPersonByColor("grün");
+    }
+}
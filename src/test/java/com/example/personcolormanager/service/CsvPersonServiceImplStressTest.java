@@ -0,0 +1,153 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.ingest.ParallelCsvIngestionEngine;
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Concurrent writers and readers against one CsvPersonServiceImpl
+class CsvPersonServiceImplStressTest {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int PERSONS_PER_WRITER = 500;
+    private static final String[] COLORS = {"blau", "grün", "violett", "rot", "gelb", "türkis", "weiß"};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void concurrentAddPerson_NoLostUpdatesAndLinearizableIds() throws Exception {
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        try (InputStream inputStream = new ClassPathResource("sample-input.csv").getInputStream()) {
+            Files.copy(inputStream, csvFile);
+        }
+        CsvPersonServiceImpl personService = newPersonService(csvFile);
+        int initialSize = personService.getPersons().size();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> readerErrors = new ConcurrentLinkedQueue<>();
+        Set<Long> allIds = new HashSet<>();
+        try {
+            List<Future<List<Long>>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>(PERSONS_PER_WRITER);
+                    for (int i = 0; i < PERSONS_PER_WRITER; i++) {
+                        Person person = new Person(0, "Writer" + writer, "Person" + i, "12345", "Stadt",
+                                COLORS[i % COLORS.length], 0);
+                        Person saved = personService.addPerson(person);
+                        assertNotNull(saved);
+                        ids.add(saved.getId());
+                        // A completed add is visible to the thread that made it
+                        assertEquals(saved.getName(), personService.getPersonById(saved.getId()).getName());
+                    }
+                    return ids;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    int lastSize = 0;
+                    while (writing.get()) {
+                        List<Person> snapshot = personService.getPersons();
+                        checkSnapshot(snapshot, lastSize, readerErrors);
+                        lastSize = snapshot.size();
+                        for (String color : COLORS) {
+                            long previousId = 0;
+                            for (Person person : personService.getPersonByColor(color)) {
+                                if (person.getId() <= previousId) {
+                                    readerErrors.add("Color list for " + color + " is not in id order");
+                                }
+                                previousId = person.getId();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<List<Long>> writer : writers) {
+                List<Long> ids = writer.get(60, TimeUnit.SECONDS);
+                // Ids follow the order in which each thread's adds completed
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i) > ids.get(i - 1), "ids of one writer must increase");
+                }
+                allIds.addAll(ids);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+            personService.close();
+        }
+
+        assertTrue(readerErrors.isEmpty(), () -> String.join("\n", readerErrors));
+        int added = WRITERS * PERSONS_PER_WRITER;
+        assertEquals(added, allIds.size());
+        for (long id = initialSize + 1; id <= initialSize + added; id++) {
+            assertTrue(allIds.contains(id), "missing id " + id);
+        }
+        assertEquals(initialSize + added, personService.getPersons().size());
+
+        // Every add also reached the file
+        CsvPersonServiceImpl reloaded = newPersonService(csvFile);
+        try {
+            assertEquals(initialSize + added, reloaded.getPersons().size());
+            assertEquals(initialSize + added, reloaded.getPersons().get(initialSize + added - 1).getId());
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    // A snapshot is a prefix of the final id sequence: ids 1..size without gaps, never shrinking
+    private static void checkSnapshot(List<Person> snapshot, int lastSize, ConcurrentLinkedQueue<String> errors) {
+        if (snapshot.size() < lastSize) {
+            errors.add("Snapshot shrank from " + lastSize + " to " + snapshot.size());
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.get(i).getId() != i + 1) {
+                errors.add("Snapshot has id " + snapshot.get(i).getId() + " at position " + i);
+                return;
+            }
+        }
+    }
+
+    private static CsvPersonServiceImpl newPersonService(Path csvFile) {
+        ColorMappingUtil colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        return new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil, new ParallelCsvIngestionEngine(2),
+                new ColorStatistics(), DurabilityMode.ASYNC);
+    }
+}
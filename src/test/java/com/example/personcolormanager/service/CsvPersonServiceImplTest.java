@@ -0,0 +1,334 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.ingest.CsvIngestionEngine;
+import com.example.personcolormanager.ingest.ParallelCsvIngestionEngine;
+import com.example.personcolormanager.ingest.PersonSnapshotFile;
+import com.example.personcolormanager.journal.DurabilityMode;
+import com.example.personcolormanager.model.DataLoad;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvPersonServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ColorMappingUtil colorMappingUtil;
+    private ColorStatistics colorStatistics;
+    private CsvPersonServiceImpl personService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        try (InputStream inputStream = new ClassPathResource("sample-input.csv").getInputStream()) {
+            Files.copy(inputStream, csvFile);
+        }
+        colorMappingUtil = new ColorMappingUtil(new ClassPathResource("colors.csv"));
+        colorMappingUtil.init();
+        colorStatistics = new ColorStatistics();
+        personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil,
+                new ParallelCsvIngestionEngine(2), colorStatistics, DurabilityMode.GROUP_FSYNC);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        personService.close();
+    }
+
+    @Test
+    void getPersonById_MatchesLinearScan() {
+        List<Person> persons = personService.getPersons();
+        assertEquals(10, persons.size());
+        for (long id = 0; id <= persons.size() + 1; id++) {
+            long searchedId = id;
+            Person expected = persons.stream()
+                    .filter(person -> person.getId() == searchedId)
+                    .findFirst()
+                    .orElse(null);
+            assertEquals(describe(expected), describe(personService.getPersonById(id)));
+        }
+    }
+
+    @Test
+    void getPersonByColor_MatchesLinearScan() {
+        List<Person> persons = personService.getPersons();
+        for (String color : List.of("blau", "GRÜN", "Violett", "rot", "gelb", "türkis", "weiß", "schwarz")) {
+            List<Person> expected = persons.stream()
+                    .filter(person -> person.getColor() != null && person.getColor().equalsIgnoreCase(color))
+                    .toList();
+            assertEquals(describe(expected), describe(personService.getPersonByColor(color)));
+        }
+        assertTrue(personService.getPersonByColor(null).isEmpty());
+    }
+
+    @Test
+    void addPerson_AssignsNextIdAndIndexesColor() {
+        Person person = new Person();
+        person.setName("Anna");
+        person.setLastName("Schmidt");
+        person.setZipCode("10115");
+        person.setCity("Berlin");
+        person.setColor("rot");
+        long dataVersion = personService.getDataVersion();
+
+        Person savedPerson = personService.addPerson(person);
+
+        assertNotNull(savedPerson);
+        assertTrue(personService.getDataVersion() > dataVersion);
+        assertEquals(11, savedPerson.getId());
+        assertEquals(4, savedPerson.getColorId());
+        assertEquals(11, personService.getPersonById(11).getId());
+        assertEquals("Schmidt", personService.getPersonById(11).getLastName());
+        assertTrue(personService.getPersonByColor("Rot").stream().anyMatch(p -> p.getId() == 11));
+        assertEquals(2, colorStatistics.getCount(4));
+    }
+
+    @Test
+    void addPerson_AnnouncesStoredPerson() {
+        List<PersonsAddedEvent> events = new ArrayList<>();
+        personService.setApplicationEventPublisher(event -> events.add((PersonsAddedEvent) event));
+        Person person = new Person();
+        person.setName("Anna");
+        person.setLastName("Schmidt");
+        person.setZipCode("10115");
+        person.setCity("Berlin");
+        person.setColor("ROT");
+
+        personService.addPerson(person);
+
+        assertEquals(1, events.size());
+        assertEquals(1, events.get(0).getPersons().size());
+        Person announced = events.get(0).getPersons().get(0);
+        assertEquals(11, announced.getId());
+        assertEquals(4, announced.getColorId());
+        assertEquals("rot", announced.getColor());
+    }
+
+    @Test
+    void addPersons_RejectsUnknownColorIdsWithoutFailingTheBatch() {
+        // Uploaded rows carry only a color id, like the persons CsvBatchReader returns
+        Person first = new Person(0, "Anna", "Schmidt", "10115", "Berlin", null, 1);
+        Person noColor = new Person(0, "Bert", "Meier", "10115", "Berlin", null, 0);
+        Person unknownColor = new Person(0, "Carl", "Huber", "10115", "Berlin", null, 99);
+        Person last = new Person(0, "Dora", "Wolf", "10115", "Berlin", null, 4);
+
+        List<Person> savedPersons = personService.addPersons(List.of(first, noColor, unknownColor, last));
+
+        assertEquals(4, savedPersons.size());
+        assertEquals(11, savedPersons.get(0).getId());
+        assertNull(savedPersons.get(1));
+        assertNull(savedPersons.get(2));
+        assertEquals(12, savedPersons.get(3).getId());
+        assertEquals("rot", personService.getPersonById(12).getColor());
+        assertEquals(12, personService.getPersons().size());
+    }
+
+    @Test
+    void colorStatistics_AreSeededFromLoad() {
+        assertEquals(2, colorStatistics.getCount(1));
+        assertEquals(3, colorStatistics.getCount(2));
+        assertEquals(0, colorStatistics.getCount(7));
+        for (int colorId = 1; colorId <= 7; colorId++) {
+            assertEquals(personService.countPersonsByColor(colorMappingUtil.getColorNameByColorId(colorId)),
+                    colorStatistics.getCount(colorId));
+        }
+    }
+
+    @Test
+    void addPerson_IsReloadedWithSameId() throws IOException {
+        Person person = new Person();
+        person.setName("Anna");
+        person.setLastName("Schmidt");
+        person.setZipCode("10115");
+        person.setCity("Berlin Mitte");
+        person.setColor("blau");
+        personService.addPerson(person);
+        personService.close();
+
+        personService = new CsvPersonServiceImpl(new FileSystemResource(tempDir.resolve("sample-input.csv")), colorMappingUtil,
+                new ParallelCsvIngestionEngine(2), colorStatistics, DurabilityMode.GROUP_FSYNC);
+
+        Person reloadedPerson = personService.getPersonById(11);
+        assertNotNull(reloadedPerson);
+        assertEquals("Schmidt", reloadedPerson.getLastName());
+        assertEquals("10115", reloadedPerson.getZipCode());
+        assertEquals("Berlin Mitte", reloadedPerson.getCity());
+        assertEquals("Klaussen", personService.getPersonById(10).getLastName());
+    }
+
+    @Test
+    void load_KeepsIdsOfAppendedLines() throws IOException {
+        personService.close();
+        // Id 11 was assigned to a person whose line never made it into the file
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        Files.writeString(csvFile, "\nSchmidt,Anna,10115 Berlin,1,12\n", StandardOpenOption.APPEND);
+
+        personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil,
+                new ParallelCsvIngestionEngine(2), colorStatistics, DurabilityMode.GROUP_FSYNC);
+
+        assertNull(personService.getPersonById(11));
+        assertEquals("Schmidt", personService.getPersonById(12).getLastName());
+        assertEquals(13, personService.addPerson(new Person(0, "Bert", "Meier", "10115", "Berlin", "rot", 0)).getId());
+    }
+
+    @Test
+    void addPersons_RejectsValuesThatWouldBreakTheLine() throws IOException {
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        long size = Files.size(csvFile);
+
+        List<Person> savedPersons = personService.addPersons(List.of(
+                new Person(0, "Anna", "Schmidt, Dr.", "10115", "Berlin", null, 1),
+                new Person(0, "Bert", "Meier", "10115", "Berlin\nMitte", null, 1),
+                new Person(0, "Carl\r", "Huber", "10115", "Berlin", null, 1)));
+
+        assertEquals(Arrays.asList(null, null, null), savedPersons);
+        assertNull(personService.addPerson(new Person(0, "Dora", "Wolf", "10115,5", "Berlin", "rot", 0)));
+        assertEquals(size, Files.size(csvFile));
+        assertEquals(10, personService.getPersons().size());
+    }
+
+    @Test
+    void backgroundLoad_AcceptsPersonsOnlyOnceLoaded() throws Exception {
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        personService.close();
+        CountDownLatch release = new CountDownLatch(1);
+        CsvIngestionEngine blockingEngine = resource -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return new ParallelCsvIngestionEngine(2).ingest(resource);
+        };
+        DataLoadService dataLoadService = new DataLoadService(true);
+        try {
+            personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil, blockingEngine,
+                    colorStatistics, DurabilityMode.GROUP_FSYNC, false, 1, dataLoadService);
+            assertFalse(dataLoadService.isReady());
+            assertNull(personService.addPerson(new Person(0, "Anna", "Schmidt", "10115", "Berlin", "rot", 0)));
+
+            release.countDown();
+            DataLoad load = dataLoadService.getLoads().get(0);
+            for (int i = 0; i < 1000 && !dataLoadService.isReady(); i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(dataLoadService.isReady());
+            assertEquals(10, load.getRecords());
+            assertEquals(Files.size(csvFile), load.getBytesRead());
+            assertEquals(100, load.getPercent());
+            assertEquals(11, personService.addPerson(new Person(0, "Anna", "Schmidt", "10115", "Berlin", "rot", 0)).getId());
+        } finally {
+            dataLoadService.shutdown();
+        }
+    }
+
+    @Test
+    void backgroundLoad_FailsWhenCsvCannotBeRead() throws Exception {
+        personService.close();
+        CsvIngestionEngine failingEngine = resource -> {
+            throw new IOException("read error");
+        };
+        DataLoadService dataLoadService = new DataLoadService(true);
+        try {
+            personService = new CsvPersonServiceImpl(new FileSystemResource(tempDir.resolve("sample-input.csv")),
+                    colorMappingUtil, failingEngine, colorStatistics, DurabilityMode.GROUP_FSYNC, false, 1, dataLoadService);
+            DataLoad load = dataLoadService.getLoads().get(0);
+            for (int i = 0; i < 1000 && load.getStatus() == DataLoad.Status.LOADING; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(DataLoad.Status.FAILED, load.getStatus());
+            assertEquals("read error", load.getError());
+            assertFalse(dataLoadService.isReady());
+            assertNull(personService.addPerson(new Person(0, "Anna", "Schmidt", "10115", "Berlin", "rot", 0)));
+        } finally {
+            dataLoadService.shutdown();
+        }
+    }
+
+    @Test
+    void failedLoad_WritesNoSnapshot() throws Exception {
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        personService.close();
+        CsvIngestionEngine failingEngine = resource -> {
+            throw new IOException("read error");
+        };
+        DataLoadService dataLoadService = new DataLoadService(true);
+        try {
+            personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil, failingEngine,
+                    colorStatistics, DurabilityMode.GROUP_FSYNC, true, 1, dataLoadService);
+            DataLoad load = dataLoadService.getLoads().get(0);
+            for (int i = 0; i < 1000 && load.getStatus() == DataLoad.Status.LOADING; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(DataLoad.Status.FAILED, load.getStatus());
+            personService.close();
+        } finally {
+            dataLoadService.shutdown();
+        }
+        assertFalse(Files.exists(PersonSnapshotFile.forCsvFile(csvFile)));
+
+        // The next start reads the CSV file instead of an empty snapshot
+        personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil,
+                new ParallelCsvIngestionEngine(2), colorStatistics, DurabilityMode.GROUP_FSYNC, true);
+        assertEquals(10, personService.getPersons().size());
+    }
+
+    @Test
+    void restart_LoadsSnapshotInsteadOfCsv() throws IOException {
+        Path csvFile = tempDir.resolve("sample-input.csv");
+        personService.close();
+        personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil,
+                new ParallelCsvIngestionEngine(2), colorStatistics, DurabilityMode.GROUP_FSYNC, true);
+        Person person = new Person(0, "Anna", "Schmidt", "10115", "Berlin", "rot", 0);
+        personService.addPerson(person);
+        List<Person> persons = List.copyOf(personService.getPersons());
+        personService.close();
+        assertTrue(Files.exists(PersonSnapshotFile.forCsvFile(csvFile)));
+
+        // The CSV file is unchanged since the snapshot, so it must not be parsed again
+        CsvIngestionEngine failingEngine = resource -> {
+            throw new AssertionError("CSV file parsed although the snapshot is up to date");
+        };
+        personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil, failingEngine,
+                colorStatistics, DurabilityMode.GROUP_FSYNC, true);
+        assertEquals(describe(persons), describe(personService.getPersons()));
+        assertEquals("rot", personService.getPersonById(11).getColor());
+
+        // Appending to the CSV file behind the snapshot's back makes it stale
+        personService.close();
+        Files.writeString(csvFile, "Neu, Nora, 12345 Irgendwo, 3\n", StandardOpenOption.APPEND);
+        personService = new CsvPersonServiceImpl(new FileSystemResource(csvFile), colorMappingUtil,
+                new ParallelCsvIngestionEngine(2), colorStatistics, DurabilityMode.GROUP_FSYNC, true);
+        assertEquals(12, personService.getPersons().size());
+    }
+
+    private static List<String> describe(List<Person> persons) {
+        return persons.stream().map(CsvPersonServiceImplTest::describe).toList();
+    }
+
+    private static String describe(Person person) {
+        if (person == null) {
+            return null;
+        }
+        return person.getId() + "|" + person.getName() + "|" + person.getLastName() + "|" + person.getZipCode() + "|"
+                + person.getCity() + "|" + person.getColor() + "|" + person.getColorId();
+    }
+}
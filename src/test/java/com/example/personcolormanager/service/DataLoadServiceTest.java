@@ -0,0 +1,81 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.DataLoad;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataLoadServiceTest {
+
+    private final DataLoadService dataLoadService = new DataLoadService(true);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dataLoadService.shutdown();
+    }
+
+    @Test
+    void start_IsReadyOnceEveryLoadCompleted() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(dataLoadService.isReady());
+
+        DataLoad colors = dataLoadService.start("colors", load -> load.setRecords(7));
+        DataLoad persons = dataLoadService.start("persons", load -> {
+            load.setBytesTotal(200);
+            load.addBytesRead(50);
+            release.await();
+            load.addBytesRead(150);
+        });
+
+        awaitFinished(colors);
+        assertEquals(DataLoad.Status.READY, colors.getStatus());
+        assertEquals(25, persons.getPercent());
+        assertFalse(dataLoadService.isReady());
+
+        release.countDown();
+        awaitFinished(persons);
+        assertEquals(100, persons.getPercent());
+        assertTrue(dataLoadService.isReady());
+        assertEquals(2, dataLoadService.getLoads().size());
+    }
+
+    @Test
+    void start_KeepsFailedLoadNotReady() throws InterruptedException {
+        DataLoad load = dataLoadService.start("persons", progress -> {
+            throw new IOException("disk gone");
+        });
+
+        awaitFinished(load);
+        assertEquals(DataLoad.Status.FAILED, load.getStatus());
+        assertEquals("disk gone", load.getError());
+        assertFalse(dataLoadService.isReady());
+    }
+
+    @Test
+    void start_RunsSynchronouslyWhenNotAsync() throws InterruptedException {
+        DataLoadService synchronous = new DataLoadService(false);
+        try {
+            assertEquals(DataLoad.Status.READY, synchronous.start("colors", load -> { }).getStatus());
+            assertTrue(synchronous.isReady());
+            assertThrows(IllegalStateException.class, () -> synchronous.start("persons", load -> {
+                throw new IOException("disk gone");
+            }));
+        } finally {
+            synchronous.shutdown();
+        }
+    }
+
+    private static void awaitFinished(DataLoad load) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (load.getStatus() == DataLoad.Status.LOADING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // The ready flag is updated right after the status
+        Thread.sleep(20);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.ImportJob;
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.repository.PersonRepository;
+import com.example.personcolormanager.util.ColorMappingUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+// Runs against the embedded database; the service's own transactions commit, so every test cleans up
+@DataJpaTest
+@Import({DbPersonServiceImpl.class, ColorStatistics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DbPersonServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @MockBean
+    private ColorMappingUtil colorMappingUtil;
+
+    @Autowired
+    private DbPersonServiceImpl personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private ColorStatistics colorStatistics;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        when(colorMappingUtil.getColorNameByColorId(anyInt())).thenReturn("");
+        when(colorMappingUtil.getColorNameByColorId(1)).thenReturn("blau");
+        when(colorMappingUtil.getColorNameByColorId(2)).thenReturn("grün");
+    }
+
+    @AfterEach
+    void tearDown() {
+        personRepository.deleteAll();
+    }
+
+    @Test
+    void streamPersons_ReadsInIdOrderAndDetachesEachPerson() {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            persons.add(new Person(0, "Name" + i, "Last" + i, "10115", "Berlin", null, i % 2 + 1));
+        }
+        List<Long> ids = personService.addPersons(persons).stream().map(Person::getId).toList();
+
+        List<Long> streamedIds = new ArrayList<>();
+        List<Person> previous = new ArrayList<>();
+        personService.streamPersons(person -> {
+            // The cursor is read in a read-only transaction, and only the current person is managed
+            assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            assertTrue(entityManager.contains(person));
+            if (!previous.isEmpty()) {
+                assertFalse(entityManager.contains(previous.get(0)));
+            }
+            previous.clear();
+            previous.add(person);
+            streamedIds.add(person.getId());
+        });
+
+        assertEquals(ids, streamedIds);
+        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+    }
+
+    @Test
+    void addPersons_UnknownColorId_IsRejected() {
+        List<Person> savedPersons = personService.addPersons(List.of(
+                new Person(0, "Anna", "Arm", "10115", "Berlin", null, 1),
+                new Person(0, "Bernd", "Bein", "20095", "Hamburg", null, 9),
+                new Person(0, "Clara", "Chor", "80331", "München", null, 2)));
+
+        assertEquals(3, savedPersons.size());
+        assertNull(savedPersons.get(1));
+        assertEquals(List.of("Anna|blau", "Clara|grün"), personRepository.findAll().stream()
+                .map(person -> person.getName() + "|" + person.getColor())
+                .toList());
+        assertEquals(0, colorStatistics.getCount(9));
+    }
+
+    @Test
+    void startImport_UnknownColorId_CountsAsRejected() throws Exception {
+        PersonImportService importService = new PersonImportService(personService, 10, 2);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            // Every fifth row has a color id that does not exist
+            csv.append("Last").append(i).append(", Name").append(i).append(", 10115 Berlin, ")
+                    .append(i % 5 == 4 ? 9 : i % 2 + 1).append('\n');
+        }
+        Path csvFile = tempDir.resolve("upload.csv");
+        Files.writeString(csvFile, csv, StandardCharsets.UTF_8);
+
+        try {
+            ImportJob job = importService.startImport(csvFile, "persons.csv");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!job.isFinished() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+            assertEquals(20, job.getRowsAccepted());
+            assertEquals(5, job.getRowsRejected());
+            assertEquals(20, personRepository.count());
+            assertTrue(personRepository.findAll().stream().noneMatch(person -> person.getColor().isEmpty()));
+        } finally {
+            importService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonChangeFeedTest {
+
+    @Test
+    void read_ReturnsEntriesAfterSequenceInOrder() {
+        PersonChangeFeed feed = new PersonChangeFeed(10);
+        feed.onPersonsAdded(new PersonsAddedEvent(persons(1, 4)));
+        feed.onPersonsAdded(new PersonsAddedEvent(persons(5, 6)));
+
+        assertEquals(6, feed.lastSequence());
+        assertEquals(List.of(3L, 4L, 5L, 6L), personIds(feed.read(2, 100)));
+        assertEquals(List.of(1L, 2L), personIds(feed.read(0, 2)));
+        assertTrue(feed.read(6, 100).isEmpty());
+        assertEquals(5, feed.read(4, 100).get(0).getSequence());
+    }
+
+    @Test
+    void read_SkipsOverwrittenEntriesAndReportsGap() {
+        PersonChangeFeed feed = new PersonChangeFeed(4);
+        feed.onPersonsAdded(new PersonsAddedEvent(persons(1, 10)));
+
+        assertEquals(7, feed.oldestSequence());
+        assertEquals(List.of(7L, 8L, 9L, 10L), personIds(feed.read(2, 100)));
+        assertTrue(feed.isGap(2));
+        assertFalse(feed.isGap(6));
+        assertFalse(feed.isGap(10));
+        // A sequence from before a restart is ahead of the feed
+        assertTrue(feed.isGap(11));
+    }
+
+    @Test
+    void parseEventId_AcceptsOnlyIdsOfThisFeed() {
+        PersonChangeFeed feed = new PersonChangeFeed(4);
+        PersonChangeFeed restarted = new PersonChangeFeed(4);
+
+        assertEquals(42L, feed.parseEventId(feed.eventId(42)));
+        assertEquals(0L, feed.parseEventId(feed.eventId(0)));
+        assertNull(feed.parseEventId(null));
+        assertNull(feed.parseEventId("42"));
+        assertNull(feed.parseEventId(feed.eventId(42) + "x"));
+        assertNull(feed.parseEventId("x" + feed.eventId(42)));
+        if (!feed.eventId(42).equals(restarted.eventId(42))) {
+            assertNull(feed.parseEventId(restarted.eventId(42)));
+        }
+    }
+
+    @Test
+    void onPersonsAdded_SignalsListenersUntilRemoved() {
+        PersonChangeFeed feed = new PersonChangeFeed(4);
+        AtomicInteger signals = new AtomicInteger();
+        Runnable listener = signals::incrementAndGet;
+        feed.addListener(listener);
+
+        feed.onPersonsAdded(new PersonsAddedEvent(persons(1, 3)));
+        feed.removeListener(listener);
+        feed.onPersonsAdded(new PersonsAddedEvent(persons(4, 4)));
+
+        assertEquals(1, signals.get());
+        assertEquals(4, feed.lastSequence());
+    }
+
+    private static List<Person> persons(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> new Person(id, "Name" + id, "Last" + id, "10115", "Berlin", "blau", 1))
+                .toList();
+    }
+
+    private static List<Long> personIds(List<PersonChangeFeed.Entry> entries) {
+        return entries.stream().map(entry -> entry.getPerson().getId()).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.personcolormanager.service;
+
+import com.example.personcolormanager.model.ImportJob;
+import com.example.personcolormanager.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class PersonImportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PersonService personService = mock(PersonService.class);
+    private PersonImportService personImportService;
+
+    @AfterEach
+    void tearDown() {
+        personImportService.shutdown();
+    }
+
+    @Test
+    void startImport_StoresBatchesAndCountsRejectedRows() throws Exception {
+        personImportService = new PersonImportService(personService, 100, 2);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(personService.addPersons(anyList())).thenAnswer(invocation -> {
+            List<Person> batch = new ArrayList<>(invocation.getArgument(0));
+            batchSizes.add(batch.size());
+            // The store refuses the first person of every batch
+            batch.set(0, null);
+            return batch;
+        });
+        Path csvFile = writeCsv(1_050, true);
+
+        ImportJob job = personImportService.startImport(csvFile, "persons.csv");
+        awaitFinished(job);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(List.of(100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 50), batchSizes);
+        assertEquals(1_050 - 11, job.getRowsAccepted());
+        assertEquals(11 + 2, job.getRowsRejected());
+        assertEquals(job.getFileSize(), job.getBytesRead());
+        assertEquals(List.of("broken row", "another broken row"), job.getMalformedSamples());
+        assertSame(job, personImportService.getJob(job.getId()));
+        assertTrue(waitUntilDeleted(csvFile));
+    }
+
+    @Test
+    void startImport_ReaderWaitsForSlowWriter() throws Exception {
+        personImportService = new PersonImportService(personService, 10, 2);
+        CountDownLatch writerReleased = new CountDownLatch(1);
+        when(personService.addPersons(anyList())).thenAnswer(invocation -> {
+            writerReleased.await();
+            return invocation.getArgument(0);
+        });
+        Path csvFile = writeCsv(20_000, false);
+
+        ImportJob job = personImportService.startImport(csvFile, "persons.csv");
+        Thread.sleep(300);
+
+        // Only the batches in the queue and in hand are parsed; the rest of the file is not read yet
+        assertEquals(ImportJob.Status.RUNNING, job.getStatus());
+        assertTrue(job.getBytesRead() < job.getFileSize() / 4, job.getBytesRead() + " of " + job.getFileSize());
+
+        writerReleased.countDown();
+        awaitFinished(job);
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(20_000, job.getRowsAccepted());
+    }
+
+    @Test
+    void startImport_WriterFailure_FailsJob() throws Exception {
+        personImportService = new PersonImportService(personService, 10, 2);
+        when(personService.addPersons(anyList())).thenThrow(new IllegalStateException("database down"));
+        Path csvFile = writeCsv(20_000, false);
+
+        ImportJob job = personImportService.startImport(csvFile, "persons.csv");
+        awaitFinished(job);
+
+        assertEquals(ImportJob.Status.FAILED, job.getStatus());
+        assertEquals("Storing persons failed: database down", job.getError());
+        verify(personService, times(1)).addPersons(anyList());
+        assertTrue(waitUntilDeleted(csvFile));
+    }
+
+    private Path writeCsv(int rows, boolean withMalformedRows) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append("Last").append(i).append(", Name").append(i).append(", ").append(10000 + i).append(" Stadt, ")
+                    .append(i % 7 + 1).append('\n');
+            if (withMalformedRows && i == 500) {
+                csv.append("broken row\n").append("another broken row\n");
+            }
+        }
+        Path csvFile = tempDir.resolve("upload.csv");
+        Files.writeString(csvFile, csv, StandardCharsets.UTF_8);
+        return csvFile;
+    }
+
+    private static void awaitFinished(ImportJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "import did not finish");
+    }
+
+    private static boolean waitUntilDeleted(Path file) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Files.exists(file) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return !Files.exists(file);
+    }
+}
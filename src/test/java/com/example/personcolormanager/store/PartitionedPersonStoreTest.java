@@ -0,0 +1,125 @@
+package com.example.personcolormanager.store;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The partitioned store must answer every query exactly like a single PersonStore
+class PartitionedPersonStoreTest {
+
+    private static final String[] COLORS = {"", "blau", "grün", "violett", "rot", "gelb", "türkis", "weiß"};
+    private static final String[] NAMES = {"Anna", "anton", "Bernd", "Claudia", "Ängelika"};
+
+    private PersonStore expected;
+    private PartitionedPersonStore partitioned;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(5);
+        List<Person> loaded = new ArrayList<>();
+        long id = 0;
+        for (int i = 0; i < 10_000; i++) {
+            // Sparse ids, as left behind by malformed rows
+            id += 1 + (random.nextInt(10) == 0 ? random.nextInt(5) : 0);
+            loaded.add(randomPerson(random, id));
+        }
+        expected = new PersonStore(colorId -> COLORS[colorId]);
+        partitioned = new PartitionedPersonStore(3, colorId -> COLORS[colorId]);
+        expected.addAll(loaded);
+        partitioned.addAll(loaded);
+        for (int i = 0; i < 500; i++) {
+            Person person = randomPerson(random, expected.nextId());
+            assertEquals(person.getId(), partitioned.nextId());
+            expected.add(person);
+            partitioned.add(person);
+        }
+    }
+
+    @Test
+    void listings_MatchSingleStore() {
+        assertEquals(expected.size(), partitioned.size());
+        assertEquals(expected.getLastId(), partitioned.getLastId());
+        assertEquals(describe(expected.getAll()), describe(partitioned.getAll()));
+
+        List<Person> streamed = new ArrayList<>();
+        partitioned.forEach(streamed::add);
+        assertEquals(describe(expected.getAll()), describe(streamed));
+
+        for (int colorId = -1; colorId < COLORS.length + 2; colorId++) {
+            assertEquals(describe(expected.getByColorId(colorId)), describe(partitioned.getByColorId(colorId)));
+            assertEquals(expected.countByColorId(colorId), partitioned.countByColorId(colorId));
+        }
+    }
+
+    @Test
+    void lookupsAndPages_MatchSingleStore() {
+        for (long id = 0; id <= expected.getLastId() + 1; id += 7) {
+            assertEquals(describe(expected.getById(id)), describe(partitioned.getById(id)));
+        }
+        for (long afterId : new long[]{0, 1, 17, 5_000, expected.getLastId() - 3, expected.getLastId()}) {
+            for (int limit : new int[]{1, 50, 100_000}) {
+                assertEquals(describe(expected.getPage(afterId, limit)), describe(partitioned.getPage(afterId, limit)));
+                PersonSearchCriteria criteria = new PersonSearchCriteria("an", null, null, "1");
+                assertEquals(describe(expected.search(criteria, afterId, limit)), describe(partitioned.search(criteria, afterId, limit)));
+                assertEquals(describe(expected.getByZipRange(20_000, 40_000, 2, afterId, limit)),
+                        describe(partitioned.getByZipRange(20_000, 40_000, 2, afterId, limit)));
+            }
+        }
+    }
+
+    @Test
+    void addsDuringQuery_AreLeftOutAsWhole() {
+        PartitionedPersonStore[] store = new PartitionedPersonStore[1];
+        AtomicBoolean addDuringQuery = new AtomicBoolean();
+        // Materializing a person of the first partition adds persons before the second partition is read
+        store[0] = new PartitionedPersonStore(2, colorId -> {
+            if (addDuringQuery.getAndSet(false)) {
+                for (long id = 3; id <= 5; id++) {
+                    store[0].add(new Person(id, "Anna", "Last" + id, "10115", "City", COLORS[1], 1));
+                }
+            }
+            return COLORS[colorId];
+        });
+        store[0].addAll(List.of(new Person(1, "Anna", "Last1", "10115", "City", COLORS[1], 1),
+                new Person(2, "Anna", "Last2", "10115", "City", COLORS[1], 1)));
+
+        addDuringQuery.set(true);
+        List<Person> found = store[0].search(new PersonSearchCriteria(null, null, null, null), 0, 100);
+
+        // Without a common cut the second partition would contribute 3 and 5, but 4 would be missing
+        assertFalse(addDuringQuery.get());
+        assertEquals(List.of(1L, 2L), found.stream().map(Person::getId).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), store[0].getAll().stream().map(Person::getId).toList());
+    }
+
+    @Test
+    void getAll_IsReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> partitioned.getAll().add(new Person()));
+    }
+
+    private static Person randomPerson(Random random, long id) {
+        int colorId = random.nextInt(COLORS.length);
+        return new Person(id, NAMES[random.nextInt(NAMES.length)], "Last" + id, String.valueOf(10_000 + random.nextInt(90_000)),
+                "City", COLORS[colorId], colorId);
+    }
+
+    private static List<String> describe(List<Person> persons) {
+        return persons.stream().map(PartitionedPersonStoreTest::describe).toList();
+    }
+
+    private static String describe(Person person) {
+        if (person == null) {
+            return null;
+        }
+        return person.getId() + "|" + person.getName() + "|" + person.getLastName() + "|" + person.getZipCode() + "|"
+                + person.getCity() + "|" + person.getColor() + "|" + person.getColorId();
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.personcolormanager.store;
+
+import com.example.personcolormanager.model.Person;
+import com.example.personcolormanager.model.PersonSearchCriteria;
+import com.example.personcolormanager.util.ZipCodes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonStoreTest {
+
+    private static final String[] COLORS = {"", "blau", "grün", "violett", "rot", "gelb", "türkis", "weiß"};
+
+    private List<Person> persons;
+    private PersonStore personStore;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        persons = new ArrayList<>();
+        for (int id = 1; id <= 5_000; id++) {
+            int colorId = random.nextInt(COLORS.length);
+            persons.add(new Person(id, "Name" + id, "Last" + id, "1000" + id, "City", COLORS[colorId], colorId));
+        }
+        personStore = new PersonStore(colorId -> COLORS[colorId]);
+        personStore.addAll(persons);
+    }
+
+    @Test
+    void getById_MatchesLinearScan() {
+        for (long id = 0; id <= persons.size() + 1; id++) {
+            long searchedId = id;
+            Person expected = persons.stream()
+                    .filter(person -> person.getId() == searchedId)
+                    .findFirst()
+                    .orElse(null);
+            assertEquals(describe(expected), describe(personStore.getById(id)));
+        }
+    }
+
+    @Test
+    void getByColorId_MatchesLinearScan() {
+        for (int colorId = 0; colorId < COLORS.length + 2; colorId++) {
+            int searchedColorId = colorId;
+            List<Person> expected = persons.stream()
+                    .filter(person -> person.getColorId() == searchedColorId)
+                    .toList();
+            assertEquals(describe(expected), describe(personStore.getByColorId(colorId)));
+        }
+    }
+
+    @Test
+    void getPage_MatchesLinearScan() {
+        for (long afterId : new long[]{0, 1, 17, 4_999, 5_000, 6_000}) {
+            List<Person> expected = persons.stream()
+                    .filter(person -> person.getId() > afterId)
+                    .limit(100)
+                    .toList();
+            assertEquals(describe(expected), describe(personStore.getPage(afterId, 100)));
+        }
+    }
+
+    @Test
+    void nextId_ContinuesAfterHighestLoadedId() {
+        assertEquals(persons.size(), personStore.getLastId());
+        assertEquals(persons.size() + 1, personStore.nextId());
+        assertEquals(persons.size() + 2, personStore.nextId());
+    }
+
+    @Test
+    void add_DuplicateId_Throws() {
+        Person duplicate = new Person(1, "Anna", "Duplicate", "12345", "City", "blau", 1);
+        assertThrows(IllegalArgumentException.class, () -> personStore.add(duplicate));
+        assertEquals(persons.size(), personStore.size());
+    }
+
+    @Test
+    void add_IdNotGreaterThanLast_Throws() {
+        Person outOfOrder = new Person(4_000, "Anna", "Late", "12345", "City", "blau", 1);
+        assertThrows(IllegalArgumentException.class, () -> personStore.add(outOfOrder));
+        assertEquals(persons.size(), personStore.size());
+    }
+
+    @Test
+    void getAll_IsStableSnapshot() {
+        List<Person> before = personStore.getAll();
+        List<Person> blueBefore = personStore.getByColorId(1);
+        int blueCount = blueBefore.size();
+
+        for (int i = 0; i < 10_000; i++) {
+            long id = personStore.nextId();
+            personStore.add(new Person(id, "Name" + id, "Last" + id, "12345", "City", "blau", 1));
+        }
+
+        assertEquals(describe(persons), describe(before));
+        assertEquals(blueCount, blueBefore.size());
+        assertEquals(persons.size() + 10_000, personStore.getAll().size());
+        assertEquals(blueCount + 10_000, personStore.getByColorId(1).size());
+        assertEquals(persons.size() + 10_000, personStore.getById(persons.size() + 10_000).getId());
+    }
+
+    @Test
+    void forEach_VisitsSnapshotInIdOrder() {
+        List<Person> visited = new ArrayList<>();
+        personStore.forEach(person -> {
+            visited.add(person);
+            // Persons added while iterating are not visited
+            if (person.getId() % 1_000 == 0) {
+                personStore.add(new Person(personStore.nextId(), "Late", "Late", "10115", "City", "blau", 1));
+            }
+        });
+
+        assertEquals(describe(persons), describe(visited));
+        assertEquals(persons.size() + 5, personStore.size());
+    }
+
+    @Test
+    void getById_SparseIds() {
+        PersonStore sparseStore = new PersonStore(colorId -> COLORS[colorId]);
+        for (long id = 10; id <= 1_000; id += 10) {
+            sparseStore.add(new Person(id, "Name" + id, "Last" + id, "12345", "City", "blau", 1));
+        }
+        for (long id = 0; id <= 1_010; id++) {
+            Person person = sparseStore.getById(id);
+            if (id >= 10 && id <= 1_000 && id % 10 == 0) {
+                assertEquals(id, person.getId());
+            } else {
+                assertNull(person);
+            }
+        }
+        assertEquals(List.of(), sparseStore.getPage(1_000, 10));
+        assertEquals(20, sparseStore.getPage(15, 1).get(0).getId());
+    }
+
+    @Test
+    void getAll_IsReadOnly() {
+        assertEquals(describe(persons), describe(personStore.getAll()));
+        assertThrows(UnsupportedOperationException.class, () -> personStore.getAll().add(new Person()));
+    }
+
+    @Test
+    void strings_AreSharedAndColorNamesResolvedOnRead() {
+        String[] colorNames = COLORS.clone();
+        PersonStore store = new PersonStore(colorId -> colorNames[colorId]);
+        store.add(new Person(1, new String("Hans"), "Müller", "67742", new String("Berlin"), "ignored", 1));
+        store.add(new Person(2, new String("Hans"), "Meier", "67742", new String("Berlin"), "ignored", 1));
+
+        assertSame(store.getById(1).getName(), store.getById(2).getName());
+        assertSame(store.getById(1).getCity(), store.getById(2).getCity());
+        assertEquals("blau", store.getById(1).getColor());
+
+        colorNames[1] = "hellblau";
+        assertEquals("hellblau", store.getById(2).getColor());
+    }
+
+    @Test
+    void search_MatchesLinearScan() {
+        String[] names = {"Anna", "anton", "Andreas", "BERND", "bernhard", "Claudia", "Ängelika", "änne", null};
+        String[] cities = {"Berlin", "bernau", "Bremen", "Köln", "KÖNIGSWINTER", "München", ""};
+        Random random = new Random(7);
+        List<Person> indexed = new ArrayList<>();
+        for (int id = 1; id <= 20_000; id++) {
+            indexed.add(randomPerson(random, id, names, cities));
+        }
+        PersonStore store = new PersonStore(colorId -> COLORS[colorId]);
+        store.addAll(indexed);
+        // Rows added one by one are not covered by the index until it is rebuilt
+        List<Person> all = new ArrayList<>(indexed);
+        for (int id = 20_001; id <= 21_000; id++) {
+            Person person = randomPerson(random, id, names, cities);
+            store.add(person);
+            all.add(person);
+        }
+
+        List<PersonSearchCriteria> criteria = List.of(
+                new PersonSearchCriteria("an", null, null, null),
+                new PersonSearchCriteria("AN", null, "BER", null),
+                new PersonSearchCriteria("Än", null, null, null),
+                new PersonSearchCriteria(null, "last1", null, null),
+                new PersonSearchCriteria(null, "Last12345", null, null),
+                new PersonSearchCriteria(null, null, "köni", "1"),
+                new PersonSearchCriteria(null, null, null, "2000"),
+                new PersonSearchCriteria("bernd", "LAST2", "b", "1"),
+                new PersonSearchCriteria("x", null, null, null),
+                new PersonSearchCriteria(null, null, "", null));
+        for (PersonSearchCriteria criterion : criteria) {
+            for (long afterId : new long[]{0, 1, 777, 19_990, 20_500, 21_000}) {
+                for (int limit : new int[]{1, 50, 100_000}) {
+                    List<Person> expected = all.stream()
+                            .filter(person -> person.getId() > afterId && matches(person, criterion))
+                            .limit(limit)
+                            .toList();
+                    assertEquals(describe(expected), describe(store.search(criterion, afterId, limit)),
+                            criterion + " after " + afterId + " limit " + limit);
+                }
+            }
+        }
+    }
+
+    @Test
+    void getByZipRange_MatchesLinearScan() {
+        String[] zipCodes = {"01067", "10115", "20095", "30159", "33602", "39104", "80331", "99999", "abc", "", null};
+        Random random = new Random(11);
+        List<Person> all = new ArrayList<>();
+        PersonStore store = new PersonStore(colorId -> COLORS[colorId]);
+        for (int id = 1; id <= 30_000; id++) {
+            int colorId = random.nextInt(COLORS.length);
+            String zipCode = random.nextBoolean()
+                    ? zipCodes[random.nextInt(zipCodes.length)]
+                    : String.format("%05d", random.nextInt(100_000));
+            all.add(new Person(id, "Name" + id, "Last" + id, zipCode, "City", COLORS[colorId], colorId));
+        }
+        store.addAll(all.subList(0, 29_000));
+        // Rows added one by one are not covered by the index until it is rebuilt
+        all.subList(29_000, all.size()).forEach(store::add);
+
+        int[][] ranges = {{30_000, 39_999}, {0, 99_999}, {1_067, 1_067}, {33_602, 33_700}, {40_000, 40_010}, {5, 4}};
+        for (int[] range : ranges) {
+            for (int colorId : new int[]{PersonStore.ANY_COLOR, 1, 7, 12}) {
+                for (long afterId : new long[]{0, 5_000, 28_990, 29_500}) {
+                    for (int limit : new int[]{1, 50, 100_000}) {
+                        List<Person> expected = all.stream()
+                                .filter(person -> person.getId() > afterId)
+                                .filter(person -> colorId == PersonStore.ANY_COLOR || person.getColorId() == colorId)
+                                .filter(person -> {
+                                    int zip = ZipCodes.parse(person.getZipCode());
+                                    return zip != ZipCodes.NO_ZIP && zip >= range[0] && zip <= range[1];
+                                })
+                                .limit(limit)
+                                .toList();
+                        assertEquals(describe(expected), describe(store.getByZipRange(range[0], range[1], colorId, afterId, limit)),
+                                range[0] + "-" + range[1] + " color " + colorId + " after " + afterId + " limit " + limit);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void search_ConcurrentAppends_SeesConsistentPrefix() throws InterruptedException {
+        PersonSearchCriteria criteria = new PersonSearchCriteria("name", null, null, null);
+        assertConsistentWhileAppending((store, afterId) -> store.search(criteria, afterId, 100));
+    }
+
+    @Test
+    void getByZipRange_ConcurrentAppends_SeesConsistentPrefix() throws InterruptedException {
+        assertConsistentWhileAppending((store, afterId) -> store.getByZipRange(0, 99_999, PersonStore.ANY_COLOR, afterId, 100));
+    }
+
+    // Runs the query, which matches every row, while another thread appends enough rows for several
+    // background index rebuilds; each result must be the rows right after afterId without gaps
+    private static void assertConsistentWhileAppending(BiFunction<PersonStore, Long, List<Person>> query)
+            throws InterruptedException {
+        PersonStore store = new PersonStore(colorId -> COLORS[colorId]);
+        int count = 60_000;
+        Thread writer = new Thread(() -> {
+            for (int id = 1; id <= count; id++) {
+                store.add(new Person(id, "Name" + id, "Last" + id, String.format("%05d", id), "City",
+                        COLORS[id % COLORS.length], id % COLORS.length));
+            }
+        });
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            Random random = new Random(r);
+            readers.add(new Thread(() -> {
+                try {
+                    while (writer.isAlive()) {
+                        long afterId = random.nextInt(Math.max(1, store.size()));
+                        List<Person> found = query.apply(store, afterId);
+                        for (int i = 0; i < found.size(); i++) {
+                            Person person = found.get(i);
+                            assertEquals(afterId + i + 1, person.getId());
+                            assertEquals("Name" + person.getId(), person.getName());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(count, store.size());
+        assertEquals(100, query.apply(store, (long) count - 100).size());
+    }
+
+    private static Person randomPerson(Random random, long id, String[] names, String[] cities) {
+        int colorId = random.nextInt(COLORS.length);
+        return new Person(id, names[random.nextInt(names.length)], "Last" + id,
+                String.valueOf(10_000 + random.nextInt(90_000)), cities[random.nextInt(cities.length)], COLORS[colorId], colorId);
+    }
+
+    private static boolean matches(Person person, PersonSearchCriteria criteria) {
+        return startsWith(person.getName(), criteria.getName()) && startsWith(person.getLastName(), criteria.getLastName())
+                && startsWith(person.getZipCode(), criteria.getZipCode()) && startsWith(person.getCity(), criteria.getCity());
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return prefix == null || prefix.isEmpty()
+                || value != null && value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private static List<String> describe(List<Person> persons) {
+        return persons.stream().map(PersonStoreTest::describe).toList();
+    }
+
+    private static String describe(Person person) {
+        if (person == null) {
+            return null;
+        }
+        return person.getId() + "|" + person.getName() + "|" + person.getLastName() + "|" + person.getZipCode() + "|"
+                + person.getCity() + "|" + person.getColor() + "|" + person.getColorId();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.personcolormanager.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    void encode_AssignsDenseCodesAcrossRehashes() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, dictionary.encode("value" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, dictionary.encode("value" + i));
+            assertEquals("value" + i, StringDictionary.decode(dictionary.values(), i));
+        }
+        assertEquals(10_000, dictionary.size());
+    }
+
+    @Test
+    void encode_NullHasNoCode() {
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(StringDictionary.NO_CODE, dictionary.encode(null));
+        assertNull(StringDictionary.decode(dictionary.values(), StringDictionary.NO_CODE));
+        assertEquals(0, dictionary.size());
+    }
+}
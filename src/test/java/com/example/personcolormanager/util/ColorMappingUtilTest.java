@@ -0,0 +1,112 @@
+package com.example.personcolormanager.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColorMappingUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path colorFile;
+    private ColorMappingUtil colorMappingUtil;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        colorFile = tempDir.resolve("colors.csv");
+        Files.writeString(colorFile, "1,blau\n2,grün\n3,violett\n7,weiß\n", StandardCharsets.UTF_8);
+        colorMappingUtil = new ColorMappingUtil(new FileSystemResource(colorFile));
+        colorMappingUtil.init();
+    }
+
+    @Test
+    void lookups_IgnoreCase() {
+        assertEquals(1, colorMappingUtil.getColorIdByColorName("BLAU"));
+        assertEquals(2, colorMappingUtil.getColorIdByColorName("Grün"));
+        assertEquals(7, colorMappingUtil.getColorIdByColorName("WEIß"));
+        assertNull(colorMappingUtil.getColorIdByColorName("schwarz"));
+        assertNull(colorMappingUtil.getColorIdByColorName(""));
+
+        assertEquals("violett", colorMappingUtil.getColorNameByColorId(3));
+        assertEquals("", colorMappingUtil.getColorNameByColorId(4));
+        assertEquals("", colorMappingUtil.getColorNameByColorId(-1));
+        assertEquals("", colorMappingUtil.getColorNameByColorId(100));
+        assertEquals(4, colorMappingUtil.getColorMapping().size());
+        assertEquals(2, colorMappingUtil.getLookupMisses());
+    }
+
+    @Test
+    void reload_SwapsPalette() throws IOException {
+        Files.writeString(colorFile, "1,schwarz\n8,orange\n", StandardCharsets.UTF_8);
+
+        assertTrue(colorMappingUtil.reload());
+
+        assertEquals(1, colorMappingUtil.getColorIdByColorName("Schwarz"));
+        assertEquals(8, colorMappingUtil.getColorIdByColorName("orange"));
+        assertNull(colorMappingUtil.getColorIdByColorName("blau"));
+        assertEquals(1, colorMappingUtil.getPaletteVersion());
+    }
+
+    @Test
+    void reload_IgnoresIdsOutsideRange() throws IOException {
+        Files.writeString(colorFile, "1,blau\n2147483647,riesig\n-3,negativ\n" + ColorPalette.MAX_ID + ",grau\n",
+                StandardCharsets.UTF_8);
+
+        assertTrue(colorMappingUtil.reload());
+
+        assertEquals(1, colorMappingUtil.getColorIdByColorName("blau"));
+        assertEquals(ColorPalette.MAX_ID, colorMappingUtil.getColorIdByColorName("grau"));
+        assertNull(colorMappingUtil.getColorIdByColorName("riesig"));
+        assertNull(colorMappingUtil.getColorIdByColorName("negativ"));
+        assertEquals(2, colorMappingUtil.getColorMapping().size());
+        assertThrows(IllegalArgumentException.class, () -> new ColorPalette(Map.of(ColorPalette.MAX_ID + 1, "riesig")));
+    }
+
+    @Test
+    void reload_InvalidFileKeepsPalette() throws IOException {
+        Files.writeString(colorFile, "eins,blau\n", StandardCharsets.UTF_8);
+
+        assertFalse(colorMappingUtil.reload());
+
+        assertEquals(1, colorMappingUtil.getColorIdByColorName("blau"));
+        assertEquals(0, colorMappingUtil.getPaletteVersion());
+    }
+
+    @Test
+    void reload_ReadersNeverSeeMixedPalette() throws Exception {
+        ColorMappingUtil first = colorMappingUtil;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> mixed = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                ColorPalette palette = first.getPalette();
+                String one = palette.getName(1);
+                String two = palette.getName(2);
+                if (!(one.equals("blau") && two.equals("grün")) && !(one.equals("rot") && two.equals("gelb"))) {
+                    mixed.set(one + "/" + two);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200; i++) {
+            Files.writeString(colorFile, i % 2 == 0 ? "1,rot\n2,gelb\n" : "1,blau\n2,grün\n", StandardCharsets.UTF_8);
+            first.reload();
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(mixed.get());
+    }
+}